@@ -0,0 +1,81 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.damienwesterman.defensedrill.mvc;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.damienwesterman.defensedrill.mvc.web.dto.AbstractCategoryDTO;
+import com.damienwesterman.defensedrill.mvc.web.dto.DrillRelatedDTO;
+import com.damienwesterman.defensedrill.mvc.web.dto.DrillResponseDTO;
+import com.damienwesterman.defensedrill.mvc.web.dto.InstructionsDTO;
+
+/**
+ * Catalog data shaped like what the rest-api returns, for the benchmarks.
+ */
+public final class CatalogFixtures {
+    private CatalogFixtures() { }
+
+    /**
+     * A Drill with the given number of categories, sub-categories, related drills and
+     * instructions, each instruction having 6 steps.
+     */
+    public static DrillResponseDTO drill(long id, int categories, int subCategories,
+            int relatedDrills, int instructions) {
+        return DrillResponseDTO.builder()
+            .id(id)
+            .name("Drill " + id)
+            .categories(categories(categories))
+            .subCategories(categories(subCategories))
+            .relatedDrills(IntStream.range(0, relatedDrills)
+                .mapToObj(i -> new DrillRelatedDTO(id + i + 1, "Drill " + (id + i + 1)))
+                .toList())
+            .instructions(IntStream.range(0, instructions)
+                .mapToObj(i -> new InstructionsDTO("Instructions " + i,
+                    IntStream.range(0, 6).mapToObj(step -> "Step " + step + " of drill " + id).toList(),
+                    null))
+                .toList())
+            .build();
+    }
+
+    /**
+     * The whole catalog as returned by /drill: every Drill with 2 categories, 1 sub-category,
+     * 1 related drill and 1 set of instructions.
+     */
+    public static DrillResponseDTO[] catalog(int size) {
+        return IntStream.range(0, size)
+            .mapToObj(id -> drill(id, 2, 1, 1, 1))
+            .toArray(DrillResponseDTO[]::new);
+    }
+
+    private static List<AbstractCategoryDTO> categories(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> new AbstractCategoryDTO((long) i, "Category " + i, "Description of category " + i))
+            .toList();
+    }
+}
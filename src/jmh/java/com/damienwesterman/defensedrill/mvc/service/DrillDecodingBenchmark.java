@@ -0,0 +1,97 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.damienwesterman.defensedrill.mvc.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import com.damienwesterman.defensedrill.mvc.CatalogFixtures;
+import com.damienwesterman.defensedrill.mvc.web.dto.BackendResponse;
+import com.damienwesterman.defensedrill.mvc.web.dto.DrillResponseDTO;
+import com.damienwesterman.defensedrill.mvc.web.dto.DrillSummaryDTO;
+import com.damienwesterman.defensedrill.mvc.web.dto.ErrorMessageDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Decoding of the /drill response through a {@link BackendResponseExtractor}, into full Drills
+ * (getAll) and into summaries (getAllSummaries), for catalogs of 100 to 100k Drills.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DrillDecodingBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    private int catalogSize;
+
+    private byte[] body;
+    private BackendResponseExtractor<DrillResponseDTO[]> drillsExtractor;
+    private BackendResponseExtractor<DrillSummaryDTO[]> summariesExtractor;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Same defaults as the ObjectMapper Spring Boot creates
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        body = objectMapper.writeValueAsBytes(CatalogFixtures.catalog(catalogSize));
+
+        drillsExtractor = new BackendResponseExtractor.Builder<DrillResponseDTO[]>(
+                objectMapper.readerFor(ErrorMessageDTO.class))
+            .onBody(HttpStatus.OK, objectMapper.readerFor(DrillResponseDTO[].class))
+            .build();
+        summariesExtractor = new BackendResponseExtractor.Builder<DrillSummaryDTO[]>(
+                objectMapper.readerFor(ErrorMessageDTO.class))
+            .onBody(HttpStatus.OK, objectMapper.readerFor(DrillSummaryDTO[].class))
+            .build();
+    }
+
+    @Benchmark
+    public BackendResponse<DrillResponseDTO[]> decodeDrills() throws Exception {
+        return drillsExtractor.extractData(new MockClientHttpResponse(body, HttpStatus.OK));
+    }
+
+    @Benchmark
+    public BackendResponse<DrillSummaryDTO[]> decodeSummaries() throws Exception {
+        return summariesExtractor.extractData(new MockClientHttpResponse(body, HttpStatus.OK));
+    }
+}
@@ -0,0 +1,94 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.damienwesterman.defensedrill.mvc.web.controller;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.ui.Model;
+
+import com.damienwesterman.defensedrill.mvc.util.Constants;
+import com.damienwesterman.defensedrill.mvc.web.dto.DrillSummaryDTO;
+
+/**
+ * Building of the list items of the Drill list the way
+ * {@link HtmxDrillController#viewAllDrills(Model, int)} does, for the first and the last page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ViewWindowListBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    private int catalogSize;
+
+    private List<DrillSummaryDTO> drills;
+    private int lastPage;
+
+    @Setup
+    public void setUp() {
+        DrillSummaryDTO[] summaries = new DrillSummaryDTO[catalogSize];
+        for (int i = 0; i < catalogSize; i++) {
+            summaries[i] = new DrillSummaryDTO((long) i, "Drill " + i);
+        }
+        drills = Arrays.asList(summaries);
+        lastPage = (catalogSize - 1) / Constants.LIST_PAGE_SIZE;
+    }
+
+    @Benchmark
+    public Model firstPage() {
+        return addPage(0);
+    }
+
+    @Benchmark
+    public Model lastPage() {
+        return addPage(lastPage);
+    }
+
+    private Model addPage(int page) {
+        Model model = new ExtendedModelMap();
+        ViewWindowList.addPage(model, drills, page, "/htmx/drill/view",
+            DrillSummaryDTO::getName, drill -> "/htmx/drill/view/" + drill.getId());
+        return model;
+    }
+}
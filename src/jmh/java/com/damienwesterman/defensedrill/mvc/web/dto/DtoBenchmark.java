@@ -0,0 +1,79 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.damienwesterman.defensedrill.mvc.web.dto;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+
+import com.damienwesterman.defensedrill.mvc.CatalogFixtures;
+import com.damienwesterman.defensedrill.mvc.util.Constants;
+
+/**
+ * Construction of the DTOs on the request path: a {@link DrillUpdateDTO} from a Drill for the
+ * modify forms, and {@link BackendResponse}s for every backend call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoBenchmark {
+    private DrillResponseDTO drill;
+
+    @Setup
+    public void setUp() {
+        drill = CatalogFixtures.drill(1, 5, 3, 5, 3);
+    }
+
+    @Benchmark
+    public DrillUpdateDTO drillUpdateFromResponse() {
+        return new DrillUpdateDTO(drill);
+    }
+
+    @Benchmark
+    public BackendResponse<DrillResponseDTO> backendResponse() {
+        return new BackendResponse<>(HttpStatus.OK, drill, null);
+    }
+
+    @Benchmark
+    public BackendResponse<DrillResponseDTO> backendErrorResponse() {
+        return new BackendResponse<>(HttpStatus.INTERNAL_SERVER_ERROR, null, Constants.GENERIC_INTERNAL_ERROR_DTO);
+    }
+}
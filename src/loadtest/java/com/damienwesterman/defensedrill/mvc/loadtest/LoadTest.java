@@ -0,0 +1,337 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.damienwesterman.defensedrill.mvc.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Drives HTMX traffic against a running instance (normally started with the loadtest profile,
+ * see {@link StubBackend}) and reports throughput and latency percentiles per endpoint.
+ * <br><br>
+ * Every /htmx/** endpoint is exercised with the HX-Request header, weighted roughly like a user
+ * browsing the catalog: mostly lists, searches and details, with the occasional form and write.
+ * loadtest.concurrency virtual threads send requests back to back for loadtest.duration, after
+ * loadtest.warm-up that is not measured. The report is printed and written as JSON to
+ * loadtest.report.
+ */
+public final class LoadTest {
+    private final static String HTMX_HEADER = "HX-Request";
+    private final static String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private final String baseUrl;
+    private final int catalogSize;
+    private final int categories;
+    private final List<Scenario> scenarios = new ArrayList<>();
+    private int totalWeight = 0;
+
+    /**
+     * One kind of request, and the latencies measured for it.
+     */
+    private static class Scenario {
+        private final String name;
+        private final int weight;
+        private final Function<ThreadLocalRandom, HttpRequest> request;
+        private long[] latencies = new long[1024];
+        private int count = 0;
+        private int errors = 0;
+
+        Scenario(String name, int weight, Function<ThreadLocalRandom, HttpRequest> request) {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+        }
+
+        synchronized void record(long nanos, boolean error) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (error) {
+                errors++;
+            }
+        }
+    }
+
+    private LoadTest(String baseUrl, int catalogSize, int categories, int users) {
+        this.baseUrl = baseUrl;
+        this.catalogSize = catalogSize;
+        this.categories = categories;
+
+        scenario("GET /htmx/drill/view", 10, random -> get("/htmx/drill/view"));
+        scenario("GET /htmx/drill/view?page", 3, random -> get("/htmx/drill/view?page="
+            + random.nextInt(1, Math.max(2, catalogSize / 50))));
+        scenario("GET /htmx/drill/search", 6, random -> get("/htmx/drill/search?name="
+            + encode("Drill " + random.nextInt(catalogSize))));
+        scenario("GET /htmx/drill/view/{id}", 12, random -> get("/htmx/drill/view/" + drillId(random)));
+        scenario("GET /htmx/drill/create", 1, random -> get("/htmx/drill/create"));
+        scenario("POST /htmx/drill/create", 1, random -> post("/htmx/drill/create",
+            "name=" + encode("Load Test Drill") + "&categoryIds=1&subCategoryIds=1"));
+        scenario("GET /htmx/drill/modify", 2, random -> get("/htmx/drill/modify"));
+        scenario("GET /htmx/drill/modify/{id}", 2, random -> get("/htmx/drill/modify/" + drillId(random)));
+        scenario("POST /htmx/drill/modify/{id}", 1, random -> post("/htmx/drill/modify/" + drillId(random),
+            "name=" + encode("Drill Modified") + "&categoryIds=1&categoryIds=2&relatedDrillIds=3"));
+        scenario("GET /htmx/drill/delete", 1, random -> get("/htmx/drill/delete"));
+        scenario("GET /htmx/drill/confirm_delete/{id}", 1, random ->
+            get("/htmx/drill/confirm_delete/" + drillId(random)));
+        scenario("POST /htmx/drill/delete/{id}", 1, random -> post("/htmx/drill/delete/" + drillId(random), ""));
+        scenario("GET /htmx/drill/{id}/instructions/create", 1, random ->
+            get("/htmx/drill/" + drillId(random) + "/instructions/create?startingEndpoint=/htmx/drill/view"));
+        scenario("POST /htmx/drill/{id}/instructions/create", 1, random ->
+            post("/htmx/drill/" + drillId(random) + "/instructions/create?startingEndpoint=/htmx/drill/view",
+                "description=" + encode("New Instructions") + "&steps=One&steps=Two"));
+        scenario("GET /htmx/drill/instructions/add_step", 1, random -> get("/htmx/drill/instructions/add_step"));
+        scenario("GET /htmx/drill/{id}/instructions/modify", 1, random ->
+            get("/htmx/drill/" + drillId(random) + "/instructions/modify?instructionsDescription="
+                + encode("Instructions 0") + "&startingEndpoint=/htmx/drill/view"));
+        scenario("POST /htmx/drill/{id}/instructions/modify", 1, random ->
+            post("/htmx/drill/" + drillId(random) + "/instructions/modify?originalInstructionsDescription="
+                + encode("Instructions 0") + "&startingEndpoint=/htmx/drill/view",
+                "description=" + encode("Instructions 0") + "&steps=One&steps=Two"));
+        scenario("GET /htmx/drill/{id}/instructions/confirm_delete", 1, random ->
+            get("/htmx/drill/" + drillId(random) + "/instructions/confirm_delete?instructionsDescription="
+                + encode("Instructions 1") + "&startingEndpoint=/htmx/drill/view"));
+        scenario("POST /htmx/drill/{id}/instructions/delete", 1, random ->
+            post("/htmx/drill/" + drillId(random) + "/instructions/delete?instructionsDescription="
+                + encode("Instructions 1") + "&startingEndpoint=/htmx/drill/view", ""));
+        scenario("GET /htmx/drill/empty_htmx", 1, random -> get("/htmx/drill/empty_htmx"));
+
+        for (String category : List.of("category", "sub_category")) {
+            String htmx = "/htmx/" + category;
+            String name = "category".equals(category) ? "Category" : "Sub-Category";
+            scenario("GET " + htmx + "/view", 4, random -> get(htmx + "/view"));
+            scenario("GET " + htmx + "/search", 2, random -> get(htmx + "/search?name=" + encode(name + " 1")));
+            scenario("GET " + htmx + "/view/{id}", 4, random -> get(htmx + "/view/" + random.nextInt(categories)));
+            scenario("GET " + htmx + "/create", 1, random -> get(htmx + "/create"));
+            scenario("POST " + htmx + "/create", 1, random -> post(htmx + "/create",
+                "name=" + encode("Load Test " + name) + "&description=Created&drillIds=" + drillId(random)));
+            scenario("GET " + htmx + "/modify", 1, random -> get(htmx + "/modify"));
+            scenario("GET " + htmx + "/modify/{id}", 1, random -> get(htmx + "/modify/" + random.nextInt(categories)));
+            scenario("POST " + htmx + "/modify/{id}", 1, random -> post(htmx + "/modify/" + random.nextInt(categories),
+                "name=" + encode(name + " Modified") + "&description=Modified"));
+            scenario("GET " + htmx + "/delete", 1, random -> get(htmx + "/delete"));
+            scenario("GET " + htmx + "/confirm_delete/{id}", 1, random ->
+                get(htmx + "/confirm_delete/" + random.nextInt(categories)));
+            scenario("POST " + htmx + "/delete/{id}", 1, random -> post(htmx + "/delete/" + random.nextInt(categories), ""));
+        }
+
+        scenario("GET /htmx/user/view", 2, random -> get("/htmx/user/view"));
+        scenario("GET /htmx/user/view/{id}", 2, random -> get("/htmx/user/view/" + random.nextInt(users)));
+        scenario("GET /htmx/user/create", 1, random -> get("/htmx/user/create"));
+        scenario("POST /htmx/user/create", 1, random -> post("/htmx/user/create",
+            "username=loadtest&password=LoadTest123!&roles=USER"));
+        scenario("GET /htmx/user/modify", 1, random -> get("/htmx/user/modify"));
+        scenario("GET /htmx/user/modify/{id}", 1, random -> get("/htmx/user/modify/" + random.nextInt(users)));
+        scenario("POST /htmx/user/modify/{id}", 1, random -> post("/htmx/user/modify/" + random.nextInt(users),
+            "username=modified&roles=USER"));
+        scenario("GET /htmx/user/delete", 1, random -> get("/htmx/user/delete"));
+        scenario("GET /htmx/user/confirm_delete/{id}", 1, random ->
+            get("/htmx/user/confirm_delete/" + random.nextInt(users)));
+        scenario("POST /htmx/user/delete/{id}", 1, random -> post("/htmx/user/delete/" + random.nextInt(users), ""));
+        scenario("GET /htmx/user/empty_htmx", 1, random -> get("/htmx/user/empty_htmx"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("loadtest.base-url", "http://localhost:8080");
+        int catalogSize = Integer.getInteger("loadtest.catalog-size", 1000);
+        int categories = Integer.getInteger("loadtest.categories", 20);
+        int users = Integer.getInteger("loadtest.users", 20);
+        int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        Duration warmUp = DurationStyle.detectAndParse(System.getProperty("loadtest.warm-up", "10s"));
+        Duration duration = DurationStyle.detectAndParse(System.getProperty("loadtest.duration", "60s"));
+        Path report = Path.of(System.getProperty("loadtest.report", "loadtest-result.json"));
+
+        System.out.printf("Load testing %s: %d clients, %s warm-up, %s measured%n",
+            baseUrl, concurrency, warmUp, duration);
+        new LoadTest(baseUrl, catalogSize, categories, users).run(concurrency, warmUp, duration, report);
+    }
+
+    private void run(int concurrency, Duration warmUp, Duration duration, Path report)
+            throws IOException, InterruptedException {
+        long measureFrom = System.nanoTime() + warmUp.toNanos();
+        long end = measureFrom + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                clients.submit(() -> client(measureFrom, end));
+            }
+        }
+        report(duration, report);
+    }
+
+    private Void client(long measureFrom, long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            Scenario scenario = pick(random);
+            boolean error;
+            try {
+                HttpResponse<Void> response = httpClient.send(scenario.request.apply(random),
+                    HttpResponse.BodyHandlers.discarding());
+                error = 400 <= response.statusCode();
+            } catch (IOException e) {
+                error = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            if (measureFrom <= now) {
+                scenario.record(System.nanoTime() - now, error);
+            }
+        }
+        return null;
+    }
+
+    private void report(Duration duration, Path report) throws IOException {
+        double seconds = duration.toNanos() / 1e9;
+        List<Map<String, Object>> results = new ArrayList<>();
+        long[] all = new long[0];
+        int totalErrors = 0;
+
+        System.out.printf("%n%-52s %8s %7s %9s %9s %9s %9s %9s%n",
+            "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p90 ms", "p99 ms", "Max ms");
+        for (Scenario scenario : scenarios) {
+            long[] latencies = Arrays.copyOf(scenario.latencies, scenario.count);
+            Arrays.sort(latencies);
+            results.add(result(scenario.name, latencies, scenario.errors, seconds));
+            printRow(scenario.name, latencies, scenario.errors, seconds);
+
+            long[] merged = Arrays.copyOf(all, all.length + latencies.length);
+            System.arraycopy(latencies, 0, merged, all.length, latencies.length);
+            all = merged;
+            totalErrors += scenario.errors;
+        }
+        Arrays.sort(all);
+        printRow("Total", all, totalErrors, seconds);
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("baseUrl", baseUrl);
+        json.put("catalogSize", catalogSize);
+        json.put("durationSeconds", seconds);
+        json.put("total", result("Total", all, totalErrors, seconds));
+        json.put("endpoints", results);
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report.toFile(), json);
+        System.out.printf("%nResults written to %s%n", report.toAbsolutePath());
+    }
+
+    private static Map<String, Object> result(String name, long[] sortedLatencies, int errors, double seconds) {
+        Map<String, Object> ret = new LinkedHashMap<>();
+        ret.put("endpoint", name);
+        ret.put("requests", sortedLatencies.length);
+        ret.put("errors", errors);
+        ret.put("throughput", sortedLatencies.length / seconds);
+        ret.put("p50Millis", percentile(sortedLatencies, 0.50));
+        ret.put("p90Millis", percentile(sortedLatencies, 0.90));
+        ret.put("p99Millis", percentile(sortedLatencies, 0.99));
+        ret.put("maxMillis", percentile(sortedLatencies, 1.0));
+        return ret;
+    }
+
+    private static void printRow(String name, long[] sortedLatencies, int errors, double seconds) {
+        System.out.printf("%-52s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", name, sortedLatencies.length,
+            errors, sortedLatencies.length / seconds, percentile(sortedLatencies, 0.50),
+            percentile(sortedLatencies, 0.90), percentile(sortedLatencies, 0.99),
+            percentile(sortedLatencies, 1.0));
+    }
+
+    /**
+     * Nearest-rank percentile, in milliseconds.
+     */
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        if (0 == sortedLatencies.length) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sortedLatencies.length);
+        return sortedLatencies[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    private void scenario(String name, int weight, Function<ThreadLocalRandom, HttpRequest> request) {
+        scenarios.add(new Scenario(name, weight, request));
+        totalWeight += weight;
+    }
+
+    private Scenario pick(ThreadLocalRandom random) {
+        int choice = random.nextInt(totalWeight);
+        for (Scenario scenario : scenarios) {
+            choice -= scenario.weight;
+            if (0 > choice) {
+                return scenario;
+            }
+        }
+        return scenarios.getLast();
+    }
+
+    private int drillId(ThreadLocalRandom random) {
+        return random.nextInt(catalogSize);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header(HTMX_HEADER, "true")
+            .GET()
+            .build();
+    }
+
+    private HttpRequest post(String path, String form) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header(HTMX_HEADER, "true")
+            .header("Content-Type", FORM_CONTENT_TYPE)
+            .POST(HttpRequest.BodyPublishers.ofString(form))
+            .build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,343 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.damienwesterman.defensedrill.mvc.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import com.damienwesterman.defensedrill.mvc.web.dto.AbstractCategoryDTO;
+import com.damienwesterman.defensedrill.mvc.web.dto.DrillRelatedDTO;
+import com.damienwesterman.defensedrill.mvc.web.dto.DrillResponseDTO;
+import com.damienwesterman.defensedrill.mvc.web.dto.InstructionsDTO;
+import com.damienwesterman.defensedrill.mvc.web.dto.UserInfoDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process stand-in for the rest-api and security backends, serving the /drill, /category,
+ * /sub_category and /user endpoints the *ApiService classes call, plus /actuator/health for the
+ * connection warm-up.
+ * <br><br>
+ * The catalog is generated at startup with loadtest.stub.catalog-size Drills, and every response
+ * is delayed by loadtest.stub.latency plus up to loadtest.stub.latency-jitter. Writes are answered
+ * as the real backends would, but never change the catalog, so a load test can run for as long as
+ * needed against the same data.
+ * <br><br>
+ * The catalog is served by loadtest.stub.instances instances, listening on consecutive ports from
+ * loadtest.stub.port (see {@link StubDiscoveryClient}). The last one takes an extra
+ * loadtest.stub.slow-instance-latency to answer, to see how the load balancer and hedging cope
+ * with a slow instance.
+ * <br><br>
+ * Successful GETs carry an ETag derived from the body, and a matching If-None-Match is answered
+ * with 304 Not Modified, so that conditional GETs get exercised as well.
+ */
+@Component
+@Profile("loadtest")
+@Slf4j
+public class StubBackend implements InitializingBean, DisposableBean {
+    private final static int INSTRUCTIONS_PER_DRILL = 2;
+    private final static int STEPS_PER_INSTRUCTIONS = 5;
+
+    private final ObjectMapper objectMapper;
+    private final int port;
+    private final int instances;
+    private final int catalogSize;
+    private final int categories;
+    private final int users;
+    private final Duration latency;
+    private final Duration latencyJitter;
+    private final Duration slowInstanceLatency;
+    private final Map<String, Resources> resources = new HashMap<>();
+    /** ETags of the catalog JSON, computed once, by array identity */
+    private final Map<byte[], String> eTags = new IdentityHashMap<>();
+    private final List<HttpServer> servers = new ArrayList<>();
+    private ExecutorService executor;
+
+    /**
+     * JSON of every item of one endpoint, by ID and by name, and of the whole list.
+     */
+    private static class Resources {
+        private final Map<Long, byte[]> byId = new HashMap<>();
+        private final Map<String, byte[]> byName = new HashMap<>();
+        private byte[] all;
+    }
+
+    public StubBackend(ObjectMapper objectMapper,
+            @Value("${loadtest.stub.port}") int port,
+            @Value("${loadtest.stub.instances}") int instances,
+            @Value("${loadtest.stub.catalog-size}") int catalogSize,
+            @Value("${loadtest.stub.categories}") int categories,
+            @Value("${loadtest.stub.users}") int users,
+            @Value("${loadtest.stub.latency}") Duration latency,
+            @Value("${loadtest.stub.latency-jitter}") Duration latencyJitter,
+            @Value("${loadtest.stub.slow-instance-latency}") Duration slowInstanceLatency) {
+        this.objectMapper = objectMapper;
+        this.port = port;
+        this.instances = instances;
+        this.catalogSize = catalogSize;
+        this.categories = categories;
+        this.users = users;
+        this.latency = latency;
+        this.latencyJitter = latencyJitter;
+        this.slowInstanceLatency = slowInstanceLatency;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        List<AbstractCategoryDTO> categoryList = categories("Category");
+        List<AbstractCategoryDTO> subCategoryList = categories("Sub-Category");
+        addResources("drill", IntStream.range(0, catalogSize)
+            .mapToObj(id -> drill(id, categoryList, subCategoryList))
+            .toList(), DrillResponseDTO::getId, DrillResponseDTO::getName);
+        addResources("category", categoryList, AbstractCategoryDTO::getId, AbstractCategoryDTO::getName);
+        addResources("sub_category", subCategoryList, AbstractCategoryDTO::getId, AbstractCategoryDTO::getName);
+        addResources("user", IntStream.range(0, users)
+            .mapToObj(id -> new UserInfoDTO((long) id, "user" + id, List.of(0 == id ? "ADMIN" : "USER")))
+            .toList(), UserInfoDTO::getId, UserInfoDTO::getUsername);
+
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (int instance = 0; instance < instances; instance++) {
+            Duration extraLatency = instances - 1 == instance && 1 < instances
+                ? slowInstanceLatency
+                : Duration.ZERO;
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port + instance), 0);
+            server.setExecutor(executor);
+            server.createContext("/", exchange -> handle(exchange, extraLatency));
+            server.start();
+            servers.add(server);
+            log.info("Stub backend listening on port {} with {} Drills, {} ms latency",
+                port + instance, catalogSize, latency.plus(extraLatency).toMillis());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        servers.forEach(server -> server.stop(0));
+        if (null != executor) {
+            executor.close();
+        }
+    }
+
+    private <T> void addResources(String endpoint, List<T> items,
+            Function<T, Long> id, Function<T, String> name)
+            throws JsonProcessingException {
+        Resources ret = new Resources();
+        for (T item : items) {
+            byte[] json = objectMapper.writeValueAsBytes(item);
+            eTags.put(json, eTag(json));
+            ret.byId.put(id.apply(item), json);
+            ret.byName.put(name.apply(item).toLowerCase(), json);
+        }
+        ret.all = objectMapper.writeValueAsBytes(items);
+        eTags.put(ret.all, eTag(ret.all));
+        resources.put(endpoint, ret);
+    }
+
+    private List<AbstractCategoryDTO> categories(String prefix) {
+        return IntStream.range(0, categories)
+            .mapToObj(id -> new AbstractCategoryDTO((long) id, prefix + " " + id,
+                "Description of " + prefix.toLowerCase() + " " + id))
+            .toList();
+    }
+
+    private DrillResponseDTO drill(long id, List<AbstractCategoryDTO> categoryList,
+            List<AbstractCategoryDTO> subCategoryList) {
+        long relatedId = (id + 1) % catalogSize;
+        return DrillResponseDTO.builder()
+            .id(id)
+            .name("Drill " + id)
+            .categories(List.of(categoryList.get((int) (id % categories)),
+                categoryList.get((int) ((id + 1) % categories))))
+            .subCategories(List.of(subCategoryList.get((int) (id % categories))))
+            .relatedDrills(List.of(new DrillRelatedDTO(relatedId, "Drill " + relatedId)))
+            .instructions(IntStream.range(0, INSTRUCTIONS_PER_DRILL)
+                .mapToObj(number -> new InstructionsDTO("Instructions " + number,
+                    IntStream.range(0, STEPS_PER_INSTRUCTIONS)
+                        .mapToObj(step -> "Step " + step + " of Drill " + id)
+                        .toList(),
+                    ""))
+                .toList())
+            .build();
+    }
+
+    private void handle(HttpExchange exchange, Duration extraLatency) throws IOException {
+        try (exchange; InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+            delay(extraLatency);
+
+            String method = exchange.getRequestMethod();
+            // "/drill/id/1/how-to" -> ["drill", "id", "1", "how-to"]
+            String[] path = exchange.getRequestURI().getPath().substring(1).split("/");
+            if ("actuator".equals(path[0])) {
+                respond(exchange, HttpStatus.OK, "{\"status\":\"UP\"}".getBytes());
+                return;
+            }
+
+            Resources endpoint = resources.get(path[0]);
+            if (null == endpoint) {
+                respond(exchange, HttpStatus.NOT_FOUND, null);
+            } else if (1 == path.length) {
+                // List, or create (answered with the first item, as if it had just been created)
+                respond(exchange, "POST".equals(method) ? HttpStatus.CREATED : HttpStatus.OK,
+                    "POST".equals(method) ? endpoint.byId.get(0L) : endpoint.all);
+            } else if (path[1].startsWith("add_")) {
+                respond(exchange, HttpStatus.NO_CONTENT, null);
+            } else if (3 <= path.length && "name".equals(path[1])) {
+                found(exchange, endpoint.byName.get(path[2].toLowerCase()));
+            } else if (3 <= path.length && "id".equals(path[1])) {
+                handleId(exchange, method, path, endpoint.byId.get(parseId(path[2])));
+            } else {
+                respond(exchange, HttpStatus.NOT_FOUND, null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handleId(HttpExchange exchange, String method, String[] path, byte[] item)
+            throws IOException {
+        if (null == item) {
+            respond(exchange, HttpStatus.NOT_FOUND, null);
+        } else if ("DELETE".equals(method)) {
+            respond(exchange, HttpStatus.NO_CONTENT, null);
+        } else if (3 == path.length) {
+            // GET, or update (answered with the item as it was)
+            respond(exchange, HttpStatus.OK, item);
+        } else if (4 == path.length) {
+            respond(exchange, HttpStatus.OK, objectMapper.writeValueAsBytes(IntStream.range(0, INSTRUCTIONS_PER_DRILL)
+                .mapToObj(number -> "Instructions " + number)
+                .toList()));
+        } else {
+            DrillResponseDTO drill = objectMapper.readValue(item, DrillResponseDTO.class);
+            long number = parseId(path[4]);
+            found(exchange, 0 <= number && number < INSTRUCTIONS_PER_DRILL
+                ? objectMapper.writeValueAsBytes(drill.getInstructions().get((int) number))
+                : null);
+        }
+    }
+
+    private static long parseId(String id) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void delay(Duration extraLatency) throws InterruptedException {
+        long millis = latency.plus(extraLatency).toMillis();
+        if (0 < latencyJitter.toMillis()) {
+            millis += ThreadLocalRandom.current().nextLong(latencyJitter.toMillis() + 1);
+        }
+        if (0 < millis) {
+            Thread.sleep(millis);
+        }
+    }
+
+    private void found(HttpExchange exchange, byte[] json) throws IOException {
+        if (null == json) {
+            respond(exchange, HttpStatus.NOT_FOUND, null);
+        } else {
+            respond(exchange, HttpStatus.OK, json);
+        }
+    }
+
+    private void respond(HttpExchange exchange, HttpStatus status, byte[] json) throws IOException {
+        if (null == json) {
+            if (HttpStatus.NOT_FOUND == status) {
+                json = "{\"error\":\"Not Found\",\"message\":\"Not in the stub catalog\"}".getBytes();
+            } else {
+                exchange.sendResponseHeaders(status.value(), -1);
+                return;
+            }
+        }
+        if (HttpStatus.OK == status && "GET".equals(exchange.getRequestMethod())) {
+            String eTag = eTags.get(json);
+            if (null == eTag) {
+                eTag = eTag(json);
+            }
+            exchange.getResponseHeaders().set(HttpHeaders.ETAG, eTag);
+            if (matches(exchange.getRequestHeaders().get(HttpHeaders.IF_NONE_MATCH), eTag)) {
+                exchange.sendResponseHeaders(HttpStatus.NOT_MODIFIED.value(), -1);
+                return;
+            }
+        }
+        exchange.getResponseHeaders().set("Content-Type", MediaType.APPLICATION_JSON_VALUE);
+        exchange.sendResponseHeaders(status.value(), json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    private static String eTag(byte[] json) {
+        return "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String eTag) {
+        if (null == ifNoneMatch) {
+            return false;
+        }
+        for (String header : ifNoneMatch) {
+            for (String candidate : header.split(",")) {
+                // Compared weakly, as If-None-Match is
+                String opaqueTag = candidate.trim().replaceFirst("^W/", "");
+                if ("*".equals(opaqueTag) || eTag.equals(opaqueTag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,91 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.damienwesterman.defensedrill.mvc.loadtest;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves rest-api and security to the instances of the {@link StubBackend}, in place of Eureka.
+ * <br><br>
+ * The instances report http as their scheme like Eureka's do, the load balancer would otherwise
+ * keep the lb scheme of the backend URLs.
+ */
+@Component
+@Profile("loadtest")
+public class StubDiscoveryClient implements DiscoveryClient {
+    private final static List<String> SERVICES = List.of("rest-api", "security");
+
+    private final int port;
+    private final int instances;
+
+    public StubDiscoveryClient(@Value("${loadtest.stub.port}") int port,
+            @Value("${loadtest.stub.instances}") int instances) {
+        this.port = port;
+        this.instances = instances;
+    }
+
+    @Override
+    public String description() {
+        return "Load test stub backend";
+    }
+
+    @Override
+    public List<String> getServices() {
+        return SERVICES;
+    }
+
+    @Override
+    public List<ServiceInstance> getInstances(String serviceId) {
+        if (!SERVICES.contains(serviceId)) {
+            return List.of();
+        }
+        return IntStream.range(0, instances)
+            .<ServiceInstance>mapToObj(instance -> new DefaultServiceInstance(serviceId + "-stub-" + instance,
+                    serviceId, "localhost", port + instance, false) {
+                @Override
+                public String getScheme() {
+                    return "http";
+                }
+            })
+            .toList();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
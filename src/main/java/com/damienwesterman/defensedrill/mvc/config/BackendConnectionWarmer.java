@@ -0,0 +1,107 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.damienwesterman.defensedrill.mvc.config;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opens connections to every discovered backend instance once the application is ready, so
+ * that the first requests after a deploy do not pay for the TCP setup (and the HTTP/2
+ * negotiation, when enabled).
+ * <br><br>
+ * The warm-up requests go through the same {@link HttpClient} as the load balanced
+ * RestTemplate, whose pool then keeps the connections alive. Their responses are ignored.
+ */
+@Component
+@Slf4j
+public class BackendConnectionWarmer {
+    private final DiscoveryClient discoveryClient;
+    private final HttpClient backendHttpClient;
+    private final List<String> services;
+    private final String path;
+    private final int connectionsPerInstance;
+    private final Duration timeout;
+
+    public BackendConnectionWarmer(DiscoveryClient discoveryClient, HttpClient backendHttpClient,
+            @Value("${backend.client.warm-up.services}") List<String> services,
+            @Value("${backend.client.warm-up.path}") String path,
+            @Value("${backend.client.warm-up.connections}") int connectionsPerInstance,
+            @Value("${backend.client.read-timeout}") Duration timeout) {
+        this.discoveryClient = discoveryClient;
+        this.backendHttpClient = backendHttpClient;
+        this.services = services;
+        this.path = path;
+        this.connectionsPerInstance = connectionsPerInstance;
+        this.timeout = timeout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (String service : services) {
+            List<ServiceInstance> instances = discoveryClient.getInstances(service);
+            if (instances.isEmpty()) {
+                log.info("No instances of {} to warm up", service);
+                continue;
+            }
+
+            for (ServiceInstance instance : instances) {
+                URI uri = instance.getUri().resolve(path);
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(timeout)
+                    .GET()
+                    .build();
+                // Concurrent requests, so that over HTTP/1.1 each one opens its own connection. Over
+                // HTTP/2 they share one, more connections per instance warm up nothing more
+                for (int i = 0; i < connectionsPerInstance; i++) {
+                    backendHttpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, exception) -> {
+                            if (null != exception) {
+                                log.warn("Could not warm up connection to {}: {}", uri, exception.toString());
+                            } else {
+                                log.debug("Warmed up {} connection to {}", response.version(), uri);
+                            }
+                        });
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.damienwesterman.defensedrill.mvc.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.damienwesterman.defensedrill.mvc.service.CatalogCache;
+import com.damienwesterman.defensedrill.mvc.service.CatalogCache.Region;
+
+/**
+ * Marks a GET /htmx/** handler whose fragment is rendered only from {@link CatalogCache} data,
+ * allowing {@link FragmentETagInterceptor} to answer it with 304 Not Modified.
+ * <br><br>
+ * Do not put this on a handler that uses anything else (user data, uncached backend calls,
+ * session state), or clients will keep being told that an outdated fragment is current.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CatalogFragment {
+    /**
+     * Regions the fragment is rendered from.
+     */
+    Region[] value();
+
+    /**
+     * Whether {@link FragmentOutputCacheInterceptor} may keep the rendered fragment. Meant for
+     * list views, leave it off where a request parameter takes arbitrary values (search).
+     */
+    boolean cacheOutput() default false;
+}
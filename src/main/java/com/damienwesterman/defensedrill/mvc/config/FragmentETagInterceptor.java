@@ -0,0 +1,216 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.damienwesterman.defensedrill.mvc.config;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import com.damienwesterman.defensedrill.mvc.service.CatalogCache;
+import com.damienwesterman.defensedrill.mvc.service.CatalogCache.Region;
+import com.damienwesterman.defensedrill.mvc.service.CatalogCache.RegionKey;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Adds weak ETags to {@link CatalogFragment} handlers and answers a matching If-None-Match
+ * with 304 Not Modified before the handler runs, so nothing is rendered or sent.
+ * <br><br>
+ * The ETag is made of the handler (which decides the template), the time this instance started
+ * (templates only change with a deploy) and the {@link CatalogCache} versions of the regions
+ * the fragment reads. It is only sent when those versions did not move while the handler ran,
+ * otherwise the model may hold data from before or after the version it would claim, and never
+ * with an error, which does not move the versions.
+ * <br><br>
+ * The versions only cover what this instance loaded, a write through another instance shows up
+ * once the entries expire and get reloaded, which only happens when the handler runs. So the
+ * cache keys a handler reads are recorded with the ETag it was sent with, and 304 is only
+ * answered while all of them are still fresh in the {@link CatalogCache}. Otherwise the handler
+ * runs, reloads what expired and the ETag changes with whatever came back different.
+ * <br><br>
+ * The ETags are weak because the same fragment goes out both gzipped and not (response
+ * compression, {@link FragmentOutputCacheInterceptor}), If-None-Match compares weakly anyway.
+ */
+public class FragmentETagInterceptor implements HandlerInterceptor {
+    private final static String ETAG_ATTRIBUTE = FragmentETagInterceptor.class.getName() + ".eTag";
+    private final static String FRESH_ATTRIBUTE = FragmentETagInterceptor.class.getName() + ".fresh";
+    /** Model attribute of the error a fragment was rendered with instead of its content */
+    final static String ERROR_ATTRIBUTE = "errorMessage";
+    private final static String INSTANCE_ID = Long.toHexString(System.currentTimeMillis());
+
+    private final CatalogCache catalogCache;
+    /** Last ETag sent for each URI, along with the cache keys it was rendered from */
+    private final Cache<String, Rendered> rendered;
+
+    private record Rendered(String eTag, Set<RegionKey> reads) { }
+
+    /**
+     * @param catalogCache Cache the fragments read from.
+     * @param maxEntries Maximum number of URIs to remember the last sent ETag of.
+     */
+    public FragmentETagInterceptor(@NonNull CatalogCache catalogCache, long maxEntries) {
+        this.catalogCache = catalogCache;
+        this.rendered = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .build();
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response, @NonNull Object handler)
+            throws Exception {
+        String eTag = eTag(request, handler);
+        if (null == eTag) {
+            return true;
+        }
+
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.put(HttpHeaders.IF_NONE_MATCH,
+            Collections.list(request.getHeaders(HttpHeaders.IF_NONE_MATCH)));
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        boolean fresh = isFresh(renderedKey(request), eTag);
+        if (fresh && (ifNoneMatch.contains(eTag) || ifNoneMatch.contains("*"))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            setCacheHeaders(response, eTag);
+            return false;
+        }
+
+        request.setAttribute(ETAG_ATTRIBUTE, eTag);
+        request.setAttribute(FRESH_ATTRIBUTE, fresh);
+        catalogCache.startRecordingReads();
+        return true;
+    }
+
+    @Override
+    public void postHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler, @Nullable ModelAndView modelAndView) throws Exception {
+        Object eTag = request.getAttribute(ETAG_ATTRIBUTE);
+        if (null == eTag) {
+            return;
+        }
+
+        Set<RegionKey> reads = catalogCache.stopRecordingReads();
+        if (eTag.equals(eTag(request, handler))
+                && HttpStatus.OK.value() == response.getStatus()
+                && (null == modelAndView || !modelAndView.getModel().containsKey(ERROR_ATTRIBUTE))) {
+            setCacheHeaders(response, (String) eTag);
+            rendered.put(renderedKey(request), new Rendered((String) eTag, reads));
+        }
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response, @NonNull Object handler,
+            @Nullable Exception ex) throws Exception {
+        if (null != request.getAttribute(ETAG_ATTRIBUTE)) {
+            // postHandle does not run when the handler threw
+            catalogCache.stopRecordingReads();
+        }
+    }
+
+    /**
+     * Whether the last response for the URI went out with the ETag, and everything it was
+     * rendered from is still fresh in the cache.
+     */
+    private boolean isFresh(@NonNull String renderedKey, @NonNull String eTag) {
+        Rendered last = rendered.getIfPresent(renderedKey);
+        return null != last && last.eTag().equals(eTag)
+            && last.reads().stream().allMatch(catalogCache::isFresh);
+    }
+
+    @NonNull
+    private static String renderedKey(@NonNull HttpServletRequest request) {
+        String query = request.getQueryString();
+        return null == query ? request.getRequestURI() : request.getRequestURI() + '?' + query;
+    }
+
+    /**
+     * Compute the current ETag of the request.
+     *
+     * @return ETag, or null if the request is not for a {@link CatalogFragment}.
+     */
+    @Nullable
+    private String eTag(@NonNull HttpServletRequest request, @NonNull Object handler) {
+        if (!catalogCache.isEnabled()
+                || !HttpMethod.GET.matches(request.getMethod())
+                || !(handler instanceof HandlerMethod handlerMethod)) {
+            return null;
+        }
+        CatalogFragment catalogFragment = handlerMethod.getMethodAnnotation(CatalogFragment.class);
+        if (null == catalogFragment) {
+            return null;
+        }
+
+        StringBuilder eTag = new StringBuilder("W/\"")
+            .append(Integer.toHexString(handlerMethod.getMethod().toGenericString().hashCode()))
+            .append('-')
+            .append(INSTANCE_ID);
+        for (Region region : catalogFragment.value()) {
+            eTag.append('-').append(Long.toHexString(catalogCache.version(region)));
+        }
+        return eTag.append('"').toString();
+    }
+
+    /**
+     * ETag the request was given in {@link #preHandle}, it is only sent if the response
+     * carries it in its ETag header once the handler ran.
+     *
+     * @return ETag, or null if the request is not for a {@link CatalogFragment}.
+     */
+    @Nullable
+    static String eTagOf(@NonNull HttpServletRequest request) {
+        return (String) request.getAttribute(ETAG_ATTRIBUTE);
+    }
+
+    /**
+     * Whether the last response for the request's URI went out with the ETag it was given in
+     * {@link #preHandle}, and everything it was rendered from is still fresh in the cache. Only
+     * then is a response with that ETag still what the handler would render.
+     */
+    static boolean isFresh(@NonNull HttpServletRequest request) {
+        return Boolean.TRUE.equals(request.getAttribute(FRESH_ATTRIBUTE));
+    }
+
+    static void setCacheHeaders(@NonNull HttpServletResponse response, @NonNull String eTag) {
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        // May be stored, but must always be revalidated
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+    }
+}
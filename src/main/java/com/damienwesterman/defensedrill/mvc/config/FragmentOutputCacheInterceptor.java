@@ -0,0 +1,324 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.mvc.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import com.damienwesterman.defensedrill.mvc.service.CatalogCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Keeps the rendered HTML of {@link CatalogFragment#cacheOutput()} handlers, and writes it back
+ * before the handler runs, so a hit skips the backend, decoding and Thymeleaf altogether.
+ * <br><br>
+ * Entries are keyed by the ETag of {@link FragmentETagInterceptor} (handler, instance and
+ * {@link CatalogCache} region versions) and the query string (page). Creating, updating or
+ * deleting moves the version of the region, so the old entries are never hit again and age out
+ * of the cache. Output is only kept when FragmentETagInterceptor sent its ETag (the versions did
+ * not move while the handler ran) and the handler did not report an error.
+ * <br><br>
+ * Writes through other instances do not move the versions until the catalog entries expire and
+ * get reloaded, so a hit is only served while everything the fragment was rendered from is still
+ * fresh (see {@link FragmentETagInterceptor#isFresh(HttpServletRequest)}), otherwise the handler
+ * runs and its output replaces the entry. Entries never outlive the catalog cache ttl either.
+ * <br><br>
+ * Bodies of at least gzipMinSize bytes are also kept gzipped, and sent as is to clients that
+ * accept it.
+ */
+public class FragmentOutputCacheInterceptor implements HandlerInterceptor {
+    private final static String GZIP = "gzip";
+
+    private final ViewResolver viewResolver;
+    private final boolean gzipEnabled;
+    private final int gzipMinSize;
+    private final Cache<String, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public FragmentOutputCacheInterceptor(ViewResolver viewResolver, MeterRegistry meterRegistry,
+            long maxEntries, Duration ttl, boolean gzipEnabled, int gzipMinSize) {
+        this.viewResolver = viewResolver;
+        this.gzipEnabled = gzipEnabled;
+        this.gzipMinSize = gzipMinSize;
+        this.entries = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(ttl)
+            .build();
+        this.hits = Counter.builder("fragment.output.cache")
+            .description("Fragment requests answered with or without cached output")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("fragment.output.cache")
+            .description("Fragment requests answered with or without cached output")
+            .tag("result", "miss")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response, @NonNull Object handler)
+            throws Exception {
+        String key = key(request, handler);
+        if (null == key) {
+            return true;
+        }
+
+        Entry entry = entries.getIfPresent(key);
+        if (null == entry || !FragmentETagInterceptor.isFresh(request)) {
+            misses.increment();
+            return true;
+        }
+
+        hits.increment();
+        FragmentETagInterceptor.setCacheHeaders(response, FragmentETagInterceptor.eTagOf(request));
+        write(entry, request, response);
+        return false;
+    }
+
+    @Override
+    public void postHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler, @Nullable ModelAndView modelAndView) throws Exception {
+        String key = key(request, handler);
+        if (null == key || null == modelAndView || modelAndView.wasCleared()
+                || modelAndView.getModel().containsKey(FragmentETagInterceptor.ERROR_ATTRIBUTE)) {
+            return;
+        }
+
+        View view = modelAndView.isReference()
+            ? viewResolver.resolveViewName(modelAndView.getViewName(), RequestContextUtils.getLocale(request))
+            : modelAndView.getView();
+        if (null != view) {
+            modelAndView.setView(new CachingView(view, key, FragmentETagInterceptor.eTagOf(request)));
+        }
+    }
+
+    /**
+     * Key of the request in the cache.
+     *
+     * @return Key, or null if the output of the request is not to be cached.
+     */
+    @Nullable
+    private static String key(@NonNull HttpServletRequest request, @NonNull Object handler) {
+        String eTag = FragmentETagInterceptor.eTagOf(request);
+        // Async output is written after the view renders, there would be nothing to keep
+        if (null == eTag || request.isAsyncStarted()
+                || !(handler instanceof HandlerMethod handlerMethod)) {
+            return null;
+        }
+        CatalogFragment catalogFragment = handlerMethod.getMethodAnnotation(CatalogFragment.class);
+        if (null == catalogFragment || !catalogFragment.cacheOutput()) {
+            return null;
+        }
+
+        String queryString = request.getQueryString();
+        return null == queryString ? eTag : eTag + '?' + queryString;
+    }
+
+    private void write(@NonNull Entry entry, @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response) throws IOException {
+        byte[] body = entry.body();
+        if (null != entry.gzippedBody()) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(request)) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+                body = entry.gzippedBody();
+            }
+        }
+        response.setContentType(entry.contentType());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static boolean acceptsGzip(@NonNull HttpServletRequest request) {
+        for (String header : Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+            for (String coding : header.split(",")) {
+                String[] parameters = coding.split(";");
+                if (GZIP.equalsIgnoreCase(parameters[0].trim())) {
+                    return 1 == parameters.length || !parameters[1].trim().matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    private byte[] gzip(@NonNull byte[] body) throws IOException {
+        if (!gzipEnabled || body.length < gzipMinSize) {
+            return null;
+        }
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(gzipped)) {
+            gzipStream.write(body);
+        }
+        return gzipped.toByteArray();
+    }
+
+    private record Entry(String contentType, byte[] body, @Nullable byte[] gzippedBody) { }
+
+    /**
+     * Renders the view into a buffer, keeps the buffer if the response turned out cacheable, then
+     * writes it.
+     */
+    private class CachingView implements View {
+        private final View view;
+        private final String key;
+        private final String eTag;
+
+        CachingView(View view, String key, String eTag) {
+            this.view = view;
+            this.key = key;
+            this.eTag = eTag;
+        }
+
+        @Override
+        @Nullable
+        public String getContentType() {
+            return view.getContentType();
+        }
+
+        @Override
+        public void render(@Nullable Map<String, ?> model, @NonNull HttpServletRequest request,
+                @NonNull HttpServletResponse response) throws Exception {
+            BufferingResponse bufferingResponse = new BufferingResponse(response);
+            view.render(model, request, bufferingResponse);
+            byte[] body = bufferingResponse.toByteArray();
+            String contentType = response.getContentType();
+
+            if (HttpStatus.OK.value() == response.getStatus() && null != contentType
+                    && eTag.equals(response.getHeader(HttpHeaders.ETAG))) {
+                Entry entry = new Entry(contentType, body, gzip(body));
+                entries.put(key, entry);
+                write(entry, request, response);
+            } else {
+                response.getOutputStream().write(body);
+            }
+        }
+    }
+
+    /**
+     * Response that keeps the body in memory rather than sending it, whether written through the
+     * output stream or the writer.
+     */
+    private static class BufferingResponse extends HttpServletResponseWrapper {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        BufferingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (null == outputStream) {
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) {
+                        buffer.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) {
+                        buffer.write(b, off, len);
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        // The buffer is always ready, the listener only has to wait on the real stream
+                        try {
+                            getResponse().getOutputStream().setWriteListener(writeListener);
+                        } catch (IOException e) {
+                            writeListener.onError(e);
+                        }
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (null == writer) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() {
+            if (null != writer) {
+                writer.flush();
+            }
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            // The length is set once the body is written
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        byte[] toByteArray() {
+            flushBuffer();
+            return buffer.toByteArray();
+        }
+    }
+}
@@ -26,6 +26,7 @@
 
 package com.damienwesterman.defensedrill.mvc.config;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.web.server.ResponseStatusException;
@@ -45,6 +46,9 @@ public class HtmxInterceptor implements HandlerInterceptor {
     public boolean preHandle(@NonNull HttpServletRequest request,
             @NonNull HttpServletResponse response, @NonNull Object handler)
             throws Exception {
+        // The response depends on HX-Request, caches must not hand one to the other
+        response.addHeader(HttpHeaders.VARY, "HX-Request");
+
         String hxHeader = request.getHeader("HX-Request");
         if (null == hxHeader || !hxHeader.equalsIgnoreCase("true")) {
             // Request did not originate from HTMX, return 404
@@ -0,0 +1,145 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.mvc.config;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Response time and in-flight calls of each backend instance, as seen from this client. Filled
+ * in by {@link LatencyAwareLoadBalancerConfig.StatsLifecycle} and read by
+ * {@link LatencyAwareLoadBalancer}.
+ * <br><br>
+ * Response time is an exponentially weighted moving average (EWMA) of the time to the response
+ * headers. A failed call counts as taking the failure penalty. An instance with no completed call
+ * in the last reprobe-after needs a probe, its average is too old to go by. Instances that have
+ * not been called for a while are dropped.
+ */
+@Component
+public class InstanceLatencyStats {
+    private final double alpha;
+    private final long failurePenaltyNanos;
+    private final long reprobeAfterNanos;
+    private final Cache<String, Stats> instances;
+    /** Instances chosen for the attempts of each hedged call, by hedge ID */
+    private final Cache<String, Set<String>> hedgedCalls;
+
+    public InstanceLatencyStats(@Value("${backend.load-balancer.ewma-alpha}") double alpha,
+            @Value("${backend.load-balancer.failure-penalty}") Duration failurePenalty,
+            @Value("${backend.load-balancer.reprobe-after}") Duration reprobeAfter) {
+        this.alpha = alpha;
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+        this.reprobeAfterNanos = reprobeAfter.toNanos();
+        this.instances = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+        // Attempts of a hedged call start within a read timeout of each other
+        this.hedgedCalls = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+    }
+
+    /**
+     * Stats of an instance, created on first use.
+     */
+    @NonNull
+    public Stats of(@NonNull ServiceInstance instance) {
+        return instances.get(keyOf(instance), key -> new Stats());
+    }
+
+    /**
+     * Whether an earlier attempt of the hedged call was sent to the instance.
+     */
+    public boolean isHedgedTo(@NonNull String hedgeId, @NonNull ServiceInstance instance) {
+        Set<String> chosen = hedgedCalls.getIfPresent(hedgeId);
+        return null != chosen && chosen.contains(keyOf(instance));
+    }
+
+    /**
+     * Remember that an attempt of the hedged call was sent to the instance.
+     */
+    public void hedgedTo(@NonNull String hedgeId, @NonNull ServiceInstance instance) {
+        hedgedCalls.get(hedgeId, key -> ConcurrentHashMap.newKeySet()).add(keyOf(instance));
+    }
+
+    @NonNull
+    private static String keyOf(@NonNull ServiceInstance instance) {
+        return instance.getServiceId() + "/" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    public class Stats {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private double ewmaNanos;
+        /** System.nanoTime() of the last sample, 0 before the first one */
+        private long lastSampleNanos;
+
+        void start() {
+            inFlight.incrementAndGet();
+        }
+
+        synchronized void complete(long durationNanos, boolean failed) {
+            inFlight.decrementAndGet();
+
+            long sample = failed ? Math.max(durationNanos, failurePenaltyNanos) : durationNanos;
+            ewmaNanos = 0 == lastSampleNanos ? sample : ewmaNanos + alpha * (sample - ewmaNanos);
+            lastSampleNanos = System.nanoTime();
+        }
+
+        /**
+         * Number of calls to the instance currently in flight.
+         */
+        public int inFlight() {
+            return inFlight.get();
+        }
+
+        /**
+         * Average response time in nanoseconds, 0 before the first call completed.
+         */
+        public synchronized double ewmaNanos() {
+            return ewmaNanos;
+        }
+
+        /**
+         * Whether the instance should get the next call to find out how it is doing: nothing is
+         * in flight to it and no call completed in the last reprobe-after.
+         */
+        public synchronized boolean needsProbe() {
+            return 0 == inFlight.get()
+                && (0 == lastSampleNanos || System.nanoTime() - lastSampleNanos > reprobeAfterNanos);
+        }
+    }
+}
@@ -26,16 +26,67 @@
 
 package com.damienwesterman.defensedrill.mvc.config;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+import com.damienwesterman.defensedrill.mvc.service.CatalogCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 public class InterceptorConfig implements WebMvcConfigurer {
+    private final CatalogCache catalogCache;
+    private final ThymeleafViewResolver thymeleafViewResolver;
+    private final MeterRegistry meterRegistry;
+    private final Duration catalogCacheTtl;
+    private final long eTagMaxEntries;
+    private final boolean viewMetricsEnabled;
+    private final boolean outputCacheEnabled;
+    private final long outputCacheMaxEntries;
+    private final boolean outputCacheGzipEnabled;
+    private final int outputCacheGzipMinSize;
+
+    public InterceptorConfig(CatalogCache catalogCache, ThymeleafViewResolver thymeleafViewResolver,
+            MeterRegistry meterRegistry, @Value("${catalog.cache.ttl}") Duration catalogCacheTtl,
+            @Value("${catalog.cache.max-size}") long eTagMaxEntries,
+            @Value("${view.metrics.enabled}") boolean viewMetricsEnabled,
+            @Value("${fragment.output-cache.enabled}") boolean outputCacheEnabled,
+            @Value("${fragment.output-cache.max-entries}") long outputCacheMaxEntries,
+            @Value("${fragment.output-cache.gzip.enabled}") boolean outputCacheGzipEnabled,
+            @Value("${fragment.output-cache.gzip.min-size}") int outputCacheGzipMinSize) {
+        this.catalogCache = catalogCache;
+        this.thymeleafViewResolver = thymeleafViewResolver;
+        this.meterRegistry = meterRegistry;
+        this.catalogCacheTtl = catalogCacheTtl;
+        this.eTagMaxEntries = eTagMaxEntries;
+        this.viewMetricsEnabled = viewMetricsEnabled;
+        this.outputCacheEnabled = outputCacheEnabled;
+        this.outputCacheMaxEntries = outputCacheMaxEntries;
+        this.outputCacheGzipEnabled = outputCacheGzipEnabled;
+        this.outputCacheGzipMinSize = outputCacheGzipMinSize;
+    }
+
     @Override
     public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        registry.addInterceptor(new StaticResourceCacheInterceptor());
         registry.addInterceptor(new HtmxInterceptor())
             .addPathPatterns("/htmx/**");
+        registry.addInterceptor(new FragmentETagInterceptor(catalogCache, eTagMaxEntries))
+            .addPathPatterns("/htmx/**");
+        if (outputCacheEnabled) {
+            // Before ViewMetricsInterceptor, so that its measured view is the one being cached
+            registry.addInterceptor(new FragmentOutputCacheInterceptor(thymeleafViewResolver, meterRegistry,
+                    outputCacheMaxEntries, catalogCacheTtl, outputCacheGzipEnabled, outputCacheGzipMinSize))
+                .addPathPatterns("/htmx/**");
+        }
+        if (viewMetricsEnabled) {
+            registry.addInterceptor(new ViewMetricsInterceptor(thymeleafViewResolver, meterRegistry));
+        }
     }
 }
@@ -0,0 +1,120 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.mvc.config;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Picks the backend instance to call by power of two choices: two instances are drawn at random,
+ * and the one with the lower cost wins. The cost of an instance is its average response time
+ * multiplied by its calls in flight plus one, see {@link InstanceLatencyStats}. A slow or
+ * overloaded instance keeps getting some traffic as long as it is drawn against a worse one, but
+ * far less than with round robin.
+ * <br><br>
+ * An instance that needs a probe is treated as having no cost, so that it gets one call (at a
+ * time) to find out whether it recovered.
+ * <br><br>
+ * Attempts of a hedged call, which share a {@link #HEDGE_ID_HEADER}, go to different instances.
+ * When every instance already has an attempt, there is none to choose.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+    public final static String HEDGE_ID_HEADER = "X-Hedge-Id";
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final InstanceLatencyStats stats;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+            InstanceLatencyStats stats) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.stats = stats;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier =
+            serviceInstanceListSupplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        String hedgeId = request.getContext() instanceof RequestDataContext context
+            ? context.getClientRequest().getHeaders().getFirst(HEDGE_ID_HEADER)
+            : null;
+        if (null == hedgeId) {
+            return supplier.get(request).next().map(this::choose);
+        }
+
+        return supplier.get(request).next().map(instances -> {
+            List<ServiceInstance> notTried = instances.stream()
+                .filter(instance -> !stats.isHedgedTo(hedgeId, instance))
+                .toList();
+            // No instance left to try, a hedge would only double the load on one already busy with the call
+            Response<ServiceInstance> ret = choose(notTried);
+            if (ret.hasServer()) {
+                stats.hedgedTo(hedgeId, ret.getServer());
+            }
+            return ret;
+        });
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        } else if (1 == instances.size()) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return new DefaultResponse(cost(a) <= cost(b) ? a : b);
+    }
+
+    private double cost(ServiceInstance instance) {
+        var instanceStats = stats.of(instance);
+        if (instanceStats.needsProbe()) {
+            return 0;
+        }
+        return instanceStats.ewmaNanos() * (instanceStats.inFlight() + 1);
+    }
+}
@@ -0,0 +1,114 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.mvc.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Load balancer configuration of every backend client (rest-api, security), registered in
+ * {@link RestConfig}. Uses the {@link LatencyAwareLoadBalancer}, or Spring Cloud's round robin
+ * when backend.load-balancer.latency-aware.enabled is false.
+ * <br><br>
+ * Not annotated with @Configuration on purpose: Spring Cloud creates these beans in a separate
+ * context for each client, they must not end up in the application context.
+ */
+public class LatencyAwareLoadBalancerConfig {
+    @Bean
+    ReactorLoadBalancer<ServiceInstance> backendLoadBalancer(Environment environment,
+            LoadBalancerClientFactory loadBalancerClientFactory, InstanceLatencyStats stats,
+            @Value("${backend.load-balancer.latency-aware.enabled}") boolean latencyAware) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        var serviceInstanceListSupplierProvider =
+            loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class);
+        if (!latencyAware) {
+            return new RoundRobinLoadBalancer(serviceInstanceListSupplierProvider, serviceId);
+        }
+        return new LatencyAwareLoadBalancer(serviceInstanceListSupplierProvider, stats);
+    }
+
+    @Bean
+    StatsLifecycle instanceLatencyStatsLifecycle(InstanceLatencyStats stats) {
+        return new StatsLifecycle(stats);
+    }
+
+    /**
+     * Records every call made through the load balancer in the {@link InstanceLatencyStats}.
+     */
+    static class StatsLifecycle implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+        private final InstanceLatencyStats stats;
+
+        StatsLifecycle(InstanceLatencyStats stats) {
+            this.stats = stats;
+        }
+
+        @Override
+        public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+            return TimedRequestContext.class.isAssignableFrom(requestContextClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+        }
+
+        @Override
+        public void onStart(Request<Object> request) {
+            // Nothing to record until an instance is chosen
+        }
+
+        @Override
+        public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+            if (request.getContext() instanceof TimedRequestContext context && lbResponse.hasServer()) {
+                context.setRequestStartTime(System.nanoTime());
+                stats.of(lbResponse.getServer()).start();
+            }
+        }
+
+        @Override
+        public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+            Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+            if (null == lbResponse || !lbResponse.hasServer()
+                    || !(completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext context)
+                    || 0 == context.getRequestStartTime()) {
+                return;
+            }
+
+            // A cancelled call (hedged attempt that lost) only tells how long it took so far
+            boolean failed = CompletionContext.Status.FAILED == completionContext.status()
+                && !Thread.currentThread().isInterrupted();
+            stats.of(lbResponse.getServer()).complete(System.nanoTime() - context.getRequestStartTime(), failed);
+        }
+    }
+}
@@ -26,21 +26,96 @@
 
 package com.damienwesterman.defensedrill.mvc.config;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerRequestTransformer;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.support.HttpRequestWrapper;
 import org.springframework.web.client.NoOpResponseErrorHandler;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * Configuration of the client used for all calls to the rest-api and security backends.
+ * Backend instances are picked by the {@link LatencyAwareLoadBalancer}.
+ */
 @Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfig.class)
 public class RestConfig {
+    /**
+     * HttpClient shared by all backend calls. Connections are pooled and kept alive by the
+     * client itself, see also {@link BackendConnectionWarmer}.
+     * <br><br>
+     * HTTP_1_1 by default, as the backends are called over plain http. HTTP_2 there means an h2c
+     * upgrade request on every new connection, only worth it if the backends support h2c. Over
+     * https, HTTP_2 is negotiated during the TLS handshake instead, and falls back to HTTP/1.1 if
+     * the backend does not support it.
+     */
+    @Bean
+    HttpClient backendHttpClient(@Value("${spring.threads.virtual.enabled}") boolean virtualThreads,
+            @Value("${backend.client.connect-timeout}") Duration connectTimeout,
+            @Value("${backend.client.http-version}") HttpClient.Version httpVersion,
+            @Value("${backend.client.pool-size}") int poolSize) {
+        ExecutorService executor;
+        if (virtualThreads) {
+            // Blocking calls then park a virtual thread instead of tying up a platform thread
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+        } else {
+            ThreadFactory threadFactory = Thread.ofPlatform()
+                .name("backend-http-", 0)
+                .daemon(true)
+                .factory();
+            executor = Executors.newFixedThreadPool(poolSize, threadFactory);
+        }
+
+        return HttpClient.newBuilder()
+            .connectTimeout(connectTimeout)
+            .version(httpVersion)
+            .executor(executor)
+            .build();
+    }
 
     @LoadBalanced
     @Bean
-    RestTemplate restTemplate() {
-        RestTemplate ret = new RestTemplate(new JdkClientHttpRequestFactory());
+    RestTemplate restTemplate(HttpClient backendHttpClient,
+            @Value("${backend.client.read-timeout}") Duration readTimeout) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(backendHttpClient);
+        requestFactory.setReadTimeout(readTimeout);
+
+        RestTemplate ret = new RestTemplate(requestFactory);
         ret.setErrorHandler(new NoOpResponseErrorHandler());
         return ret;
     }
+
+    /**
+     * Drops the {@link LatencyAwareLoadBalancer#HEDGE_ID_HEADER} once the instance is chosen, it
+     * is only meant for the load balancer.
+     */
+    @Bean
+    LoadBalancerRequestTransformer hedgeIdRemover() {
+        return (request, instance) -> {
+            if (!request.getHeaders().containsKey(LatencyAwareLoadBalancer.HEDGE_ID_HEADER)) {
+                return request;
+            }
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(request.getHeaders());
+            headers.remove(LatencyAwareLoadBalancer.HEDGE_ID_HEADER);
+            return new HttpRequestWrapper(request) {
+                @Override
+                public HttpHeaders getHeaders() {
+                    return headers;
+                }
+            };
+        };
+    }
 }
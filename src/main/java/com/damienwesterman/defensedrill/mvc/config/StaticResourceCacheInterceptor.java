@@ -0,0 +1,62 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.mvc.config;
+
+import java.util.regex.Pattern;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Cache headers of static resources. Fingerprinted URLs (/main-&lt;md5 of content&gt;.css, see
+ * spring.web.resources.chain.strategy.content) never change and are cached for a year without
+ * revalidation. Plain URLs, still used by the static error pages, must always be revalidated.
+ * <br><br>
+ * Set before the resource handler runs, which leaves Cache-Control alone as long as
+ * spring.web.resources.cache.* is not set.
+ */
+public class StaticResourceCacheInterceptor implements HandlerInterceptor {
+    private final static Pattern FINGERPRINTED = Pattern.compile(".*-[0-9a-f]{32}\\.[^/.]+$");
+    private final static String IMMUTABLE = "max-age=31536000, public, immutable";
+    private final static String REVALIDATE = "no-cache";
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response, @NonNull Object handler)
+            throws Exception {
+        if (handler instanceof ResourceHttpRequestHandler) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL,
+                FINGERPRINTED.matcher(request.getRequestURI()).matches() ? IMMUTABLE : REVALIDATE);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,86 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.mvc.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.thymeleaf.spring6.view.ThymeleafView;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * ThymeleafView that lets the model push out what was rendered so far, see {@link #flush()}.
+ * <br><br>
+ * With spring.thymeleaf.servlet.produce-partial-output-while-processing, Thymeleaf writes
+ * straight to the response, but nothing reaches the client before the response buffer fills.
+ * Long lists flush every few items instead, so the client gets the start of the fragment while
+ * the rest is still being rendered and the buffers stay small. Once the first flush committed
+ * the response, an error further down can no longer be turned into an error page.
+ */
+public class StreamingThymeleafView extends ThymeleafView {
+    private final static String RESPONSE_ATTRIBUTE = StreamingThymeleafView.class.getName() + ".response";
+
+    @Override
+    public void render(@Nullable Map<String, ?> model, @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response) throws Exception {
+        // The response rendered into, which may wrap the one of the request (see ViewMetricsInterceptor)
+        request.setAttribute(RESPONSE_ATTRIBUTE, response);
+        try {
+            super.render(model, request, response);
+        } finally {
+            request.removeAttribute(RESPONSE_ATTRIBUTE);
+        }
+    }
+
+    /**
+     * Send what the view of the current request rendered so far to the client. Does nothing
+     * outside of the rendering of a StreamingThymeleafView.
+     *
+     * @throws UncheckedIOException If the client went away.
+     */
+    public static void flush() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (null == requestAttributes
+                || !(requestAttributes.getAttribute(RESPONSE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                    instanceof HttpServletResponse response)) {
+            return;
+        }
+
+        try {
+            response.flushBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
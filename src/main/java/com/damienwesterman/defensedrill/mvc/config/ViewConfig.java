@@ -0,0 +1,58 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.mvc.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+/**
+ * Configuration of the views handlers render into.
+ */
+@Configuration
+public class ViewConfig {
+    /**
+     * Has the Thymeleaf view resolver create {@link StreamingThymeleafView}s, before it resolves
+     * any view. Static, as post-processors are created ahead of the other beans.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "view.streaming.enabled", havingValue = "true")
+    static BeanPostProcessor streamingViewPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(@NonNull Object bean, @NonNull String beanName) {
+                if (bean instanceof ThymeleafViewResolver thymeleafViewResolver) {
+                    thymeleafViewResolver.setViewClass(StreamingThymeleafView.class);
+                }
+                return bean;
+            }
+        };
+    }
+}
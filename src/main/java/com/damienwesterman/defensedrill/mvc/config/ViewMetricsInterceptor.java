@@ -0,0 +1,251 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.damienwesterman.defensedrill.mvc.config;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.springframework.web.servlet.view.UrlBasedViewResolver;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Measures the views handlers return, tagged by template and fragment
+ * (layouts/htmx/view_window_list and viewWindowList for "layouts/htmx/view_window_list :: viewWindowList"):
+ * <ul>
+ *   <li>view.resolve: time to resolve the view name into a View.</li>
+ *   <li>view.render: time to render the View, also tagged by exception.</li>
+ *   <li>view.render.output: bytes the View wrote to the response.</li>
+ *   <li>view.model.size: number of attributes in the model.</li>
+ *   <li>view.model.items: size of each collection, map or array in the model (listItems,
+ *   drillsList, ...), also tagged by attribute.</li>
+ * </ul>
+ * The view is resolved here rather than by the DispatcherServlet so that it can be handed back
+ * wrapped, the DispatcherServlet then renders the wrapper.
+ */
+@RequiredArgsConstructor
+public class ViewMetricsInterceptor implements HandlerInterceptor {
+    private final static String NONE = "none";
+    private final static String FRAGMENT_SEPARATOR = "::";
+
+    private final ViewResolver viewResolver;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void postHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler, @Nullable ModelAndView modelAndView) throws Exception {
+        if (null == modelAndView || modelAndView.wasCleared() || !modelAndView.isReference()) {
+            return;
+        }
+        String viewName = modelAndView.getViewName();
+        if (null == viewName || viewName.startsWith(UrlBasedViewResolver.REDIRECT_URL_PREFIX)
+                || viewName.startsWith(UrlBasedViewResolver.FORWARD_URL_PREFIX)) {
+            return;
+        }
+
+        int separator = viewName.indexOf(FRAGMENT_SEPARATOR);
+        String template = -1 == separator ? viewName.trim() : viewName.substring(0, separator).trim();
+        String fragment = -1 == separator ? NONE
+            : viewName.substring(separator + FRAGMENT_SEPARATOR.length()).trim();
+
+        recordModel(template, fragment, modelAndView.getModel());
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        View view = viewResolver.resolveViewName(viewName, RequestContextUtils.getLocale(request));
+        sample.stop(Timer.builder("view.resolve")
+            .description("Time to resolve a view name")
+            .tag("template", template)
+            .tag("fragment", fragment)
+            .register(meterRegistry));
+        if (null != view) {
+            modelAndView.setView(new MeasuredView(view, template, fragment));
+        }
+    }
+
+    private void recordModel(String template, String fragment, Map<String, Object> model) {
+        DistributionSummary.builder("view.model.size")
+            .description("Attributes in the model of a view")
+            .tag("template", template)
+            .tag("fragment", fragment)
+            .register(meterRegistry)
+            .record(model.size());
+
+        for (Map.Entry<String, Object> attribute : model.entrySet()) {
+            Object value = attribute.getValue();
+            int items;
+            if (value instanceof Collection<?> collection) {
+                items = collection.size();
+            } else if (value instanceof Map<?, ?> map) {
+                items = map.size();
+            } else if (null != value && value.getClass().isArray()) {
+                items = Array.getLength(value);
+            } else {
+                continue;
+            }
+            DistributionSummary.builder("view.model.items")
+                .description("Items in a collection, map or array of the model of a view")
+                .tag("template", template)
+                .tag("fragment", fragment)
+                .tag("attribute", attribute.getKey())
+                .register(meterRegistry)
+                .record(items);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private class MeasuredView implements View {
+        private final View view;
+        private final String template;
+        private final String fragment;
+
+        @Override
+        @Nullable
+        public String getContentType() {
+            return view.getContentType();
+        }
+
+        @Override
+        public void render(@Nullable Map<String, ?> model, @NonNull HttpServletRequest request,
+                @NonNull HttpServletResponse response) throws Exception {
+            CountingResponse countingResponse = new CountingResponse(response);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String exception = NONE;
+            try {
+                view.render(model, request, countingResponse);
+                countingResponse.flushWriter();
+            } catch (Exception e) {
+                exception = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                sample.stop(Timer.builder("view.render")
+                    .description("Time to render a view")
+                    .tag("template", template)
+                    .tag("fragment", fragment)
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+                DistributionSummary.builder("view.render.output")
+                    .description("Bytes written by a view")
+                    .baseUnit("bytes")
+                    .tag("template", template)
+                    .tag("fragment", fragment)
+                    .register(meterRegistry)
+                    .record(countingResponse.count);
+            }
+        }
+    }
+
+    /**
+     * Response that counts the bytes written to its body, whether through the output stream or
+     * the writer.
+     */
+    private static class CountingResponse extends HttpServletResponseWrapper {
+        private long count = 0;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (null == outputStream) {
+                ServletOutputStream wrapped = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        wrapped.write(b);
+                        count++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        wrapped.write(b, off, len);
+                        count += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        wrapped.flush();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return wrapped.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        wrapped.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (null == writer) {
+                // Encode here rather than in the wrapped writer, so the bytes go through the count
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            flushWriter();
+            super.flushBuffer();
+        }
+
+        void flushWriter() {
+            if (null != writer) {
+                writer.flush();
+            }
+        }
+    }
+}
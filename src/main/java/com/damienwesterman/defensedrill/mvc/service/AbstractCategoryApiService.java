@@ -26,37 +26,67 @@
 
 package com.damienwesterman.defensedrill.mvc.service;
 
-import org.springframework.http.HttpEntity;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.HttpStatusCode;
-import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
-import org.springframework.web.client.RestTemplate;
 
+import com.damienwesterman.defensedrill.mvc.service.CatalogCache.Region;
 import com.damienwesterman.defensedrill.mvc.util.Constants;
 import com.damienwesterman.defensedrill.mvc.util.Utility;
 import com.damienwesterman.defensedrill.mvc.web.dto.AbstractCategoryDTO;
 import com.damienwesterman.defensedrill.mvc.web.dto.BackendResponse;
+import com.damienwesterman.defensedrill.mvc.web.dto.DrillResponseDTO;
 import com.damienwesterman.defensedrill.mvc.web.dto.ErrorMessageDTO;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 /**
  * Abstract superclass for {@link CategoryApiService} and {@link SubCategoryApiService}.
  */
-@RequiredArgsConstructor
-@Slf4j
 public abstract class AbstractCategoryApiService {
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    private final BackendClient backendClient;
     private final String apiEndpoint;
+    /** Start of the operation names reported by the {@link BackendMetrics}, the last path segment (category, sub_category) */
+    private final String operationPrefix;
+    private final CatalogCache catalogCache;
+    private final CatalogNameIndex catalogNameIndex;
+    private final CatalogChangeDetector catalogChangeDetector;
+    private final Region cacheRegion;
+    /** The AbstractCategories of this type that a Drill belongs to. */
+    private final Function<DrillResponseDTO, List<AbstractCategoryDTO>> drillCategories;
+    private final ObjectReader abstractCategoryReader;
+    private final BackendResponseExtractor<AbstractCategoryDTO[]> getAllExtractor;
+    private final BackendResponseExtractor<AbstractCategoryDTO> createExtractor;
 
     private final static String ID_ENDPOINT = "/id/{id}";
     private final static String NAME_ENDPOINT = "/name/{name}";
+
+    protected AbstractCategoryApiService(BackendClient backendClient, String apiEndpoint,
+            CatalogCache catalogCache, CatalogNameIndex catalogNameIndex,
+            CatalogChangeDetector catalogChangeDetector, Region cacheRegion,
+            Function<DrillResponseDTO, List<AbstractCategoryDTO>> drillCategories) {
+        this.backendClient = backendClient;
+        this.apiEndpoint = apiEndpoint;
+        this.operationPrefix = apiEndpoint.substring(apiEndpoint.lastIndexOf('/') + 1);
+        this.catalogCache = catalogCache;
+        this.catalogNameIndex = catalogNameIndex;
+        this.catalogChangeDetector = catalogChangeDetector;
+        this.cacheRegion = cacheRegion;
+        this.drillCategories = drillCategories;
+        this.abstractCategoryReader = backendClient.readerFor(AbstractCategoryDTO.class);
+        this.getAllExtractor = backendClient.<AbstractCategoryDTO[]>extractor()
+            .onBody(HttpStatus.OK, backendClient.readerFor(AbstractCategoryDTO[].class))
+            .onValue(HttpStatus.NO_CONTENT, () -> new AbstractCategoryDTO[] { /* Empty */ })
+            .build();
+        this.createExtractor = backendClient.<AbstractCategoryDTO>extractor()
+            .onBody(HttpStatus.CREATED, abstractCategoryReader)
+            .onErrorBody(HttpStatus.BAD_REQUEST)
+            .build();
+    }
+
     /**
      * Get all AbstractCategories from the database.
      *
@@ -64,35 +94,34 @@ public abstract class AbstractCategoryApiService {
      */
     @NonNull
     public BackendResponse<AbstractCategoryDTO[]> getAll() {
-        HttpStatusCode retStatus = null;
-        AbstractCategoryDTO[] retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<AbstractCategoryDTO[]> response =
-            restTemplate.getForEntity(apiEndpoint, AbstractCategoryDTO[].class);
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case OK:
-                retStatus = HttpStatus.OK;
-                retDto = response.getBody();
-                retError = null;
-                break;
+        return catalogCache.getRefreshed(cacheRegion, CatalogCache.ALL_KEY, this::fetchAll);
+    }
 
-            case NO_CONTENT:
-                retStatus = HttpStatus.NO_CONTENT;
-                retDto = new AbstractCategoryDTO[] { /* Empty */ };
-                retError = null;
-                break;
+    @NonNull
+    private BackendResponse<AbstractCategoryDTO[]> fetchAll() {
+        return backendClient.get(operationPrefix + ".getAll", apiEndpoint, getAllExtractor);
+    }
 
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
+    /**
+     * Find AbstractCategories whose name starts with the prefix (case insensitive), from the
+     * {@link CatalogNameIndex}.
+     *
+     * @param prefix Start of the AbstractCategory name.
+     * @return BackendResponse containing the matches, in alphabetical order.
+     */
+    @NonNull
+    public BackendResponse<List<CatalogNameIndex.Match>> search(@NonNull String prefix) {
+        var response = getAll();
+        if (!response.hasError()) {
+            catalogNameIndex.sync(cacheRegion, response.getResponse(),
+                AbstractCategoryDTO::getId, AbstractCategoryDTO::getName);
+        } else if (!catalogNameIndex.isSynced(cacheRegion)) {
+            return new BackendResponse<List<CatalogNameIndex.Match>>(
+                response.getStatus(), null, response.getError());
         }
 
-        return new BackendResponse<AbstractCategoryDTO[]>(retStatus, retDto, retError);
+        return new BackendResponse<List<CatalogNameIndex.Match>>(HttpStatus.OK,
+            catalogNameIndex.search(cacheRegion, prefix, Constants.SEARCH_RESULT_LIMIT), null);
     }
 
     /**
@@ -103,111 +132,71 @@ public abstract class AbstractCategoryApiService {
      */
     @NonNull
     public BackendResponse<AbstractCategoryDTO> get(@NonNull Long id) {
-        HttpStatusCode retStatus = null;
-        AbstractCategoryDTO retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<AbstractCategoryDTO> response =
-            restTemplate.getForEntity(
-                apiEndpoint + ID_ENDPOINT,
-                AbstractCategoryDTO.class,
-                id
-            );
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case OK:
-                retStatus = HttpStatus.OK;
-                retDto = response.getBody();
-                retError = null;
-                break;
-
-            case NOT_FOUND:
-                retStatus = HttpStatus.NOT_FOUND;
-                retDto = null;
-                retError = new ErrorMessageDTO(
-                    Constants.NOT_FOUND_ERROR,
-                    "ID " + id + " does not exist."
-                );
-                break;
+        return catalogCache.get(cacheRegion, CatalogCache.idKey(id), () -> fetch(id));
+    }
 
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
-        }
+    @NonNull
+    private BackendResponse<AbstractCategoryDTO> fetch(@NonNull Long id) {
+        return backendClient.get(operationPrefix + ".get", apiEndpoint + ID_ENDPOINT, idExtractor(id), id);
+    }
 
-        return new BackendResponse<AbstractCategoryDTO>(retStatus, retDto, retError);
+    @NonNull
+    private BackendResponseExtractor<AbstractCategoryDTO> idExtractor(@NonNull Long id) {
+        return backendClient.<AbstractCategoryDTO>extractor()
+            .onBody(HttpStatus.OK, abstractCategoryReader)
+            .onError(HttpStatus.NOT_FOUND, () -> new ErrorMessageDTO(
+                Constants.NOT_FOUND_ERROR,
+                "ID " + id + " does not exist."
+            ))
+            .build();
     }
 
     /**
-     * Update an AbstractCategory.
+     * Update an AbstractCategory. Nothing is sent when it matches the AbstractCategory as the
+     * backend currently has it, see {@link CatalogChangeDetector}.
      *
      * @param abstractCategory AbstractCategory to update.
      * @return BackendResponse containing the updated AbstractCategory.
      */
     @NonNull
     public BackendResponse<AbstractCategoryDTO> update(@NonNull AbstractCategoryDTO abstractCategory) {
-        HttpStatusCode retStatus = null;
-        AbstractCategoryDTO retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<String> response =
-            restTemplate.exchange(
-                apiEndpoint + ID_ENDPOINT,
-                HttpMethod.PUT,
-                new HttpEntity<AbstractCategoryDTO>(abstractCategory),
-                String.class,
-                abstractCategory.getId()
-            );
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case OK:
-                retStatus = HttpStatus.OK;
-                // Extract returned object
-                try {
-                    retDto = objectMapper.readValue(response.getBody(), AbstractCategoryDTO.class);
-                } catch (JsonProcessingException e) {
-                    log.error(e.toString());
-                    retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                    retDto = null;
-                    retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                }
-                retError = null;
-                break;
+        if (catalogChangeDetector.isEnabled()) {
+            // Live, a cached or fallback copy may predate another instance's update
+            var current = backendClient.getLive(operationPrefix + ".getCurrent",
+                apiEndpoint + ID_ENDPOINT, idExtractor(abstractCategory.getId()), abstractCategory.getId());
+            if (HttpStatus.OK.isSameCodeAs(current.getStatus())
+                    && catalogChangeDetector.isUnchanged(operationPrefix,
+                    abstractCategory.getId(), abstractCategory.changedFieldsFrom(current.getResponse()))) {
+                // What is cached may still be from before another instance's update
+                invalidateAbstractCategory(abstractCategory.getId());
+                return current;
+            }
+        }
 
-            case BAD_REQUEST:
-                retStatus = HttpStatus.BAD_REQUEST;
-                retDto = null;
-                try {
-                    retError = objectMapper.readValue(response.getBody(), ErrorMessageDTO.class);
-                } catch (JsonProcessingException e) {
-                    log.error(e.toString());
-                    retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                    retDto = null;
-                    retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                }
-                break;
+        try {
+            return sendUpdate(abstractCategory);
+        } finally {
+            invalidateAbstractCategory(abstractCategory.getId());
+        }
+    }
 
-            case NOT_FOUND:
-                retStatus = HttpStatus.NOT_FOUND;
-                retDto = null;
-                retError = new ErrorMessageDTO(
+    @NonNull
+    private BackendResponse<AbstractCategoryDTO> sendUpdate(@NonNull AbstractCategoryDTO abstractCategory) {
+        return backendClient.exchange(
+            operationPrefix + ".update",
+            HttpMethod.PUT,
+            apiEndpoint + ID_ENDPOINT,
+            abstractCategory,
+            backendClient.<AbstractCategoryDTO>extractor()
+                .onBody(HttpStatus.OK, abstractCategoryReader)
+                .onErrorBody(HttpStatus.BAD_REQUEST)
+                .onError(HttpStatus.NOT_FOUND, () -> new ErrorMessageDTO(
                     Constants.NOT_FOUND_ERROR,
                     "Category " + abstractCategory.getId() + " does not exist."
-                );
-                break;
-
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
-        }
-
-        return new BackendResponse<AbstractCategoryDTO>(retStatus, retDto, retError);
+                ))
+                .build(),
+            abstractCategory.getId()
+        );
     }
 
     /**
@@ -216,7 +205,11 @@ public abstract class AbstractCategoryApiService {
      * @param id ID of the AbstractCategory to delete.
      */
     public void delete(@NonNull Long id) {
-        restTemplate.delete(apiEndpoint + ID_ENDPOINT, id);
+        try {
+            backendClient.delete(operationPrefix + ".delete", apiEndpoint + ID_ENDPOINT, id);
+        } finally {
+            invalidateAbstractCategory(id);
+        }
     }
 
     /**
@@ -227,54 +220,16 @@ public abstract class AbstractCategoryApiService {
      */
     @NonNull
     public BackendResponse<AbstractCategoryDTO> create(@NonNull AbstractCategoryDTO abstractCategory) {
-        HttpStatusCode retStatus = null;
-        AbstractCategoryDTO retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<String> response =
-            restTemplate.postForEntity(
-                apiEndpoint,
-                abstractCategory,
-                String.class
-            );
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case CREATED:
-                retStatus = HttpStatus.CREATED;
-                // Extract returned object
-                try {
-                    retDto = objectMapper.readValue(response.getBody(), AbstractCategoryDTO.class);
-                } catch (JsonProcessingException e) {
-                    log.error(e.toString());
-                    retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                    retDto = null;
-                    retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                }
-                retError = null;
-                break;
-
-            case BAD_REQUEST:
-                retStatus = HttpStatus.BAD_REQUEST;
-                retDto = null;
-                try {
-                    retError = objectMapper.readValue(response.getBody(), ErrorMessageDTO.class);
-                } catch (JsonProcessingException e) {
-                    log.error(e.toString());
-                    retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                    retDto = null;
-                    retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                }
-                break;
-
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
+        try {
+            return sendCreate(abstractCategory);
+        } finally {
+            catalogCache.invalidate(cacheRegion, CatalogCache.ALL_KEY);
         }
+    }
 
-        return new BackendResponse<AbstractCategoryDTO>(retStatus, retDto, retError);
+    @NonNull
+    private BackendResponse<AbstractCategoryDTO> sendCreate(@NonNull AbstractCategoryDTO abstractCategory) {
+        return backendClient.exchange(operationPrefix + ".create", HttpMethod.POST, apiEndpoint, abstractCategory, createExtractor);
     }
 
     /**
@@ -285,41 +240,53 @@ public abstract class AbstractCategoryApiService {
      */
     @NonNull
     public BackendResponse<AbstractCategoryDTO> get(@NonNull String name) {
-        HttpStatusCode retStatus = null;
-        AbstractCategoryDTO retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<AbstractCategoryDTO> response =
-            restTemplate.getForEntity(
-                apiEndpoint + NAME_ENDPOINT,
-                AbstractCategoryDTO.class,
-                Utility.convertToUri(name)
-            );
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case OK:
-                retStatus = HttpStatus.OK;
-                retDto = response.getBody();
-                retError = null;
-                break;
+        return catalogCache.get(cacheRegion, CatalogCache.nameKey(name), () -> fetch(name));
+    }
 
-            case NOT_FOUND:
-                retStatus = HttpStatus.NOT_FOUND;
-                retDto = null;
-                retError = new ErrorMessageDTO(
+    @NonNull
+    private BackendResponse<AbstractCategoryDTO> fetch(@NonNull String name) {
+        return backendClient.get(
+            operationPrefix + ".getByName",
+            apiEndpoint + NAME_ENDPOINT,
+            backendClient.<AbstractCategoryDTO>extractor()
+                .onBody(HttpStatus.OK, abstractCategoryReader)
+                .onError(HttpStatus.NOT_FOUND, () -> new ErrorMessageDTO(
                     Constants.NOT_FOUND_ERROR,
                     "Category \"" + name + "\" does not exist."
-                );
-                break;
+                ))
+                .build(),
+            Utility.convertToUri(name)
+        );
+    }
 
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
+    /**
+     * Invalidate every cached entry that contains the AbstractCategory, including the Drills
+     * that belong to it.
+     *
+     * @param id ID of the AbstractCategory that was written.
+     */
+    private void invalidateAbstractCategory(Long id) {
+        if (null == id) {
+            catalogCache.invalidateAll(cacheRegion);
+            catalogCache.invalidateAll(Region.DRILL);
+            return;
         }
 
-        return new BackendResponse<AbstractCategoryDTO>(retStatus, retDto, retError);
+        catalogCache.invalidateIf(cacheRegion, body -> abstractCategoriesIn(body)
+            .anyMatch(abstractCategory -> id.equals(abstractCategory.getId())));
+        catalogCache.invalidateIf(Region.DRILL, body -> CatalogCache.drillsIn(body)
+            .map(drillCategories)
+            .anyMatch(abstractCategories -> null != abstractCategories
+                && abstractCategories.stream()
+                    .anyMatch(abstractCategory -> id.equals(abstractCategory.getId()))));
+    }
+
+    private static Stream<AbstractCategoryDTO> abstractCategoriesIn(Object body) {
+        if (body instanceof AbstractCategoryDTO abstractCategory) {
+            return Stream.of(abstractCategory);
+        } else if (body instanceof AbstractCategoryDTO[] abstractCategories) {
+            return Stream.of(abstractCategories);
+        }
+        return Stream.empty();
     }
 }
@@ -0,0 +1,651 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.damienwesterman.defensedrill.mvc.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import com.damienwesterman.defensedrill.mvc.config.LatencyAwareLoadBalancer;
+import com.damienwesterman.defensedrill.mvc.util.Constants;
+import com.damienwesterman.defensedrill.mvc.web.dto.BackendResponse;
+import com.damienwesterman.defensedrill.mvc.web.dto.ErrorMessageDTO;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single point through which all *ApiService classes call the backends.
+ * <br><br>
+ * Responses are handed to a {@link BackendResponseExtractor}, so bodies are decoded once,
+ * straight from the response stream.
+ * <br><br>
+ * GETs are conditional: the ETag and Last-Modified validators of each successful response are
+ * kept per URL together with the decoded body. When the backend answers the next request for that
+ * URL with 304 Not Modified, the kept body is returned without anything being transferred or decoded.
+ * <br><br>
+ * GETs are also single-flight: while a GET is in flight, identical GETs from other threads do not
+ * go to the backend, they wait (up to a timeout of their own) and share its decoded result.
+ * <br><br>
+ * Every call goes through a circuit breaker per backend and endpoint family (rest-api-drill,
+ * security-user, ...), configured under resilience4j.circuitbreaker. I/O errors and 5xx responses
+ * count as failures. While a breaker is open, calls fail fast without reaching the backend: GETs
+ * return the last successful response for their URL if there is one, everything else returns a
+ * SERVICE_UNAVAILABLE BackendResponse. GETs also fall back to that response on I/O errors.
+ * Fallback responses are marked as such (see {@link BackendResponse#isFallback()}), and are only
+ * kept for backend.client.circuit-breaker.fallback.max-age.
+ * <br><br>
+ * Calls are also split into bulkheads, configured under resilience4j.bulkhead, so that a slow
+ * backend only holds up the requests that use it. Backends listed in
+ * backend.client.bulkhead.split-services get one for reads and one for writes (rest-api-read,
+ * rest-api-write), the others one for all their calls (security). A call that cannot get into
+ * its bulkhead within max-wait-duration is rejected like one on an open circuit breaker, and
+ * counted under backend.client.bulkhead.rejected.
+ * <br><br>
+ * GETs that take unusually long are hedged with a second attempt to another instance, see
+ * {@link BackendHedging}.
+ * <br><br>
+ * Every call is named by the caller with a logical operation (drill.get, user.create, ...) and
+ * timed per operation, together with the size of its response body, see {@link BackendMetrics}.
+ */
+@Component
+@Slf4j
+public class BackendClient {
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader errorReader;
+    /** Null when conditional GETs are disabled. */
+    private final Cache<RequestKey, Validated> validated;
+    /** Null when single-flight is disabled. */
+    private final ConcurrentMap<RequestKey, CompletableFuture<BackendResponse<?>>> inFlight;
+    private final Duration singleFlightWaitTimeout;
+    /** Null when circuit breakers are disabled. */
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    /** Last successful response per GET, up to fallback.max-age old, null when circuit breakers are disabled. */
+    private final Cache<RequestKey, BackendResponse<?>> lastKnownGood;
+    /** Null when bulkheads are disabled. */
+    private final BulkheadRegistry bulkheadRegistry;
+    private final Set<String> bulkheadSplitServices;
+    private final MeterRegistry meterRegistry;
+    private final BackendHedging backendHedging;
+    private final BackendMetrics backendMetrics;
+
+    /**
+     * Identifies a GET: the URL together with the types its body is decoded into.
+     */
+    private static record RequestKey(URI uri, List<JavaType> bodyTypes) { }
+
+    /**
+     * Validators and decoded body of the last successful GET of a URL.
+     *
+     * @param eTag ETag header, null if not sent.
+     * @param lastModified Last-Modified header in epoch millis, -1 if not sent.
+     * @param response Decoded response.
+     */
+    private static record Validated(String eTag, long lastModified, BackendResponse<?> response) { }
+
+    public BackendClient(RestTemplate restTemplate, ObjectMapper objectMapper,
+            CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry,
+            MeterRegistry meterRegistry, BackendHedging backendHedging, BackendMetrics backendMetrics,
+            @Value("${backend.client.conditional-get.enabled}") boolean conditionalGetEnabled,
+            @Value("${backend.client.conditional-get.max-entries}") long maxEntries,
+            @Value("${backend.client.single-flight.enabled}") boolean singleFlightEnabled,
+            @Value("${backend.client.single-flight.wait-timeout}") Duration singleFlightWaitTimeout,
+            @Value("${backend.client.circuit-breaker.enabled}") boolean circuitBreakerEnabled,
+            @Value("${backend.client.circuit-breaker.fallback.max-entries}") long fallbackMaxEntries,
+            @Value("${backend.client.circuit-breaker.fallback.max-age}") Duration fallbackMaxAge,
+            @Value("${backend.client.bulkhead.enabled}") boolean bulkheadEnabled,
+            @Value("${backend.client.bulkhead.split-services}") Set<String> bulkheadSplitServices) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.errorReader = objectMapper.readerFor(ErrorMessageDTO.class);
+        this.validated = conditionalGetEnabled
+            ? Caffeine.newBuilder().maximumSize(maxEntries).build()
+            : null;
+        this.inFlight = singleFlightEnabled ? new ConcurrentHashMap<>() : null;
+        this.singleFlightWaitTimeout = singleFlightWaitTimeout;
+        this.circuitBreakerRegistry = circuitBreakerEnabled ? circuitBreakerRegistry : null;
+        this.lastKnownGood = circuitBreakerEnabled
+            ? Caffeine.newBuilder().maximumSize(fallbackMaxEntries).expireAfterWrite(fallbackMaxAge).build()
+            : null;
+        this.bulkheadRegistry = bulkheadEnabled ? bulkheadRegistry : null;
+        this.bulkheadSplitServices = bulkheadSplitServices;
+        this.meterRegistry = meterRegistry;
+        this.backendHedging = backendHedging;
+        this.backendMetrics = backendMetrics;
+    }
+
+    /**
+     * Create a reader for a response type. Readers are immutable and meant to be created once
+     * and kept by the caller.
+     *
+     * @param type Type to decode.
+     * @return ObjectReader for the type.
+     */
+    @NonNull
+    public ObjectReader readerFor(@NonNull Class<?> type) {
+        return objectMapper.readerFor(type);
+    }
+
+    /**
+     * Start building a {@link BackendResponseExtractor}.
+     *
+     * @return New Builder.
+     */
+    @NonNull
+    public <T> BackendResponseExtractor.Builder<T> extractor() {
+        return new BackendResponseExtractor.Builder<>(errorReader);
+    }
+
+    /**
+     * GET a resource.
+     *
+     * @param operation Logical operation, for metrics.
+     * @param url URL template.
+     * @param extractor Extractor for the response.
+     * @param uriVariables Variables to expand the URL template with.
+     * @return Extracted BackendResponse.
+     */
+    @NonNull
+    public <T> BackendResponse<T> get(@NonNull String operation, @NonNull String url,
+            @NonNull BackendResponseExtractor<T> extractor, Object... uriVariables) {
+        URI uri = restTemplate.getUriTemplateHandler().expand(url, uriVariables);
+        Timer.Sample sample = backendMetrics.start();
+        BackendResponse<T> ret = null;
+        RuntimeException thrown = null;
+        try {
+            ret = singleFlightGet(operation, new RequestKey(uri, extractor.bodyTypes()), extractor);
+            return ret;
+        } catch (RuntimeException e) {
+            thrown = e;
+            throw e;
+        } finally {
+            backendMetrics.stop(sample, uri.getHost(), operation, HttpMethod.GET,
+                null == ret ? null : ret.getStatus(), thrown);
+        }
+    }
+
+    /**
+     * Make the GET, or wait for the identical one another thread is making.
+     */
+    @NonNull
+    private <T> BackendResponse<T> singleFlightGet(@NonNull String operation, @NonNull RequestKey key,
+            @NonNull BackendResponseExtractor<T> extractor) {
+        if (null == inFlight) {
+            return getWithFallback(operation, key, extractor);
+        }
+
+        CompletableFuture<BackendResponse<?>> ourCall = new CompletableFuture<>();
+        CompletableFuture<BackendResponse<?>> existingCall = inFlight.putIfAbsent(key, ourCall);
+        if (null != existingCall) {
+            return awaitInFlight(operation, key, extractor, existingCall);
+        }
+
+        try {
+            BackendResponse<T> ret = getWithFallback(operation, key, extractor);
+            if (ret.hasError() && Thread.currentThread().isInterrupted()) {
+                // Cancelled while reading the response, the error is ours alone
+                ourCall.cancel(false);
+            } else {
+                ourCall.complete(ret);
+            }
+            return ret;
+        } catch (RuntimeException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                // Cancelled, the failure is ours alone, not the backend's
+                ourCall.cancel(false);
+            } else {
+                ourCall.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            inFlight.remove(key, ourCall);
+        }
+    }
+
+    /**
+     * Wait for the identical GET another thread is making, up to the single-flight wait timeout.
+     * If that thread gives up on it, make the GET.
+     */
+    @NonNull
+    private <T> BackendResponse<T> awaitInFlight(@NonNull String operation, @NonNull RequestKey key,
+            @NonNull BackendResponseExtractor<T> extractor,
+            @NonNull CompletableFuture<BackendResponse<?>> call) {
+        try {
+            // Same URL and same body types, so the shared response is a BackendResponse<T>
+            @SuppressWarnings("unchecked")
+            BackendResponse<T> ret = (BackendResponse<T>) call.get(singleFlightWaitTimeout.toMillis(),
+                TimeUnit.MILLISECONDS);
+            return ret;
+        } catch (TimeoutException e) {
+            log.warn("Gave up waiting for in-flight GET {} after {}", key.uri(), singleFlightWaitTimeout);
+        } catch (CancellationException e) {
+            return getWithFallback(operation, key, extractor);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            log.error("In-flight GET {} failed", key.uri(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for in-flight GET {}", key.uri());
+        }
+
+        return new BackendResponse<T>(HttpStatus.INTERNAL_SERVER_ERROR,
+            null, Constants.GENERIC_INTERNAL_ERROR_DTO);
+    }
+
+    /**
+     * Make the GET, keeping its response if successful, and falling back to the last successful
+     * one if the backend cannot be reached.
+     */
+    @NonNull
+    private <T> BackendResponse<T> getWithFallback(@NonNull String operation, @NonNull RequestKey key,
+            @NonNull BackendResponseExtractor<T> extractor) {
+        if (null == lastKnownGood) {
+            return conditionalGet(operation, key, extractor);
+        }
+
+        try {
+            BackendResponse<T> ret = conditionalGet(operation, key, extractor);
+            if (ret.getStatus().is2xxSuccessful()) {
+                lastKnownGood.put(key, ret);
+            }
+            return ret;
+        } catch (CallNotPermittedException | BulkheadFullException | ResourceAccessException e) {
+            // Same URL and same body types, so the kept response is a BackendResponse<T>
+            @SuppressWarnings("unchecked")
+            BackendResponse<T> fallback = (BackendResponse<T>) lastKnownGood.getIfPresent(key);
+            if (null != fallback) {
+                log.warn("Serving last known good response for GET {}: {}", key.uri(), e.getMessage());
+                return fallback.asFallback();
+            } else if (!(e instanceof ResourceAccessException)) {
+                return unavailable(key.uri(), e);
+            }
+            throw e;
+        }
+    }
+
+    @NonNull
+    private <T> BackendResponse<T> conditionalGet(@NonNull String operation, @NonNull RequestKey key,
+            @NonNull BackendResponseExtractor<T> extractor) {
+        URI uri = key.uri();
+        if (null == validated) {
+            return execute(operation, uri, jsonCallback(null), extractor);
+        }
+
+        Validated previous = validated.getIfPresent(key);
+        RequestCallback callback = request -> {
+            jsonCallback(null).doWithRequest(request);
+            if (null != previous) {
+                if (null != previous.eTag()) {
+                    request.getHeaders().setIfNoneMatch(previous.eTag());
+                }
+                if (0 <= previous.lastModified()) {
+                    request.getHeaders().setIfModifiedSince(previous.lastModified());
+                }
+            }
+        };
+        ResponseExtractor<BackendResponse<T>> conditionalExtractor = response -> {
+            if (null != previous && HttpStatus.NOT_MODIFIED.isSameCodeAs(response.getStatusCode())) {
+                log.debug("Not modified: {}", uri);
+                // Same URL and same body types, so the kept response is a BackendResponse<T>
+                @SuppressWarnings("unchecked")
+                BackendResponse<T> ret = (BackendResponse<T>) previous.response();
+                return ret;
+            }
+
+            BackendResponse<T> ret = extractor.extractData(response);
+            HttpHeaders headers = response.getHeaders();
+            if (HttpStatus.OK.isSameCodeAs(ret.getStatus())
+                    && (null != headers.getETag() || 0 <= headers.getLastModified())) {
+                validated.put(key, new Validated(headers.getETag(), headers.getLastModified(), ret));
+            } else {
+                validated.invalidate(key);
+            }
+            return ret;
+        };
+
+        return execute(operation, uri, callback, conditionalExtractor);
+    }
+
+    @NonNull
+    private <T> BackendResponse<T> execute(@NonNull String operation, @NonNull URI uri,
+            @NonNull RequestCallback callback,
+            @NonNull ResponseExtractor<BackendResponse<T>> extractor) {
+        BackendResponse<T> ret = backendHedging.call(uri.getHost(), hedgeId -> {
+            RequestCallback attemptCallback = null == hedgeId ? callback : request -> {
+                callback.doWithRequest(request);
+                request.getHeaders().set(LatencyAwareLoadBalancer.HEDGE_ID_HEADER, hedgeId);
+            };
+            return call(operation, HttpMethod.GET, uri, attemptCallback, extractor);
+        });
+        if (null == ret) {
+            // Should never happen, the extractor always returns a response
+            throw new IllegalStateException("No response extracted from GET " + uri);
+        }
+        return ret;
+    }
+
+    /**
+     * Make a request through the bulkhead and circuit breaker of its URL, recording the size of
+     * the response body.
+     *
+     * @throws BulkheadFullException If the bulkhead stayed full for its max-wait-duration.
+     * @throws CallNotPermittedException If the circuit breaker is open.
+     */
+    @Nullable
+    private <T> T call(@NonNull String operation, @NonNull HttpMethod method, @NonNull URI uri,
+            @Nullable RequestCallback callback, @Nullable ResponseExtractor<T> extractor) {
+        ResponseExtractor<T> measuredExtractor = null == extractor ? null : response -> {
+            CountingResponse counting = new CountingResponse(response);
+            T ret = extractor.extractData(counting);
+            backendMetrics.recordResponseSize(uri.getHost(), operation, counting.count);
+            return ret;
+        };
+        if (null == bulkheadRegistry) {
+            return callThroughCircuitBreaker(method, uri, callback, measuredExtractor);
+        }
+
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(bulkheadName(method, uri));
+        try {
+            bulkhead.acquirePermission();
+        } catch (BulkheadFullException e) {
+            meterRegistry.counter("backend.client.bulkhead.rejected", "bulkhead", bulkhead.getName())
+                .increment();
+            throw e;
+        }
+        try {
+            return callThroughCircuitBreaker(method, uri, callback, measuredExtractor);
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+
+    @Nullable
+    private <T> T callThroughCircuitBreaker(@NonNull HttpMethod method, @NonNull URI uri,
+            @Nullable RequestCallback callback, @Nullable ResponseExtractor<T> extractor) {
+        if (null == circuitBreakerRegistry) {
+            return restTemplate.execute(uri, method, callback, extractor);
+        }
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(circuitBreakerName(uri));
+        circuitBreaker.acquirePermission();
+        long start = circuitBreaker.getCurrentTimestamp();
+        try {
+            T ret = restTemplate.execute(uri, method, callback, extractor);
+            long duration = circuitBreaker.getCurrentTimestamp() - start;
+            HttpStatusCode status = ret instanceof BackendResponse<?> response ? response.getStatus()
+                : ret instanceof HttpStatusCode statusCode ? statusCode : null;
+            if (Thread.currentThread().isInterrupted()) {
+                // Cancelled while the response was read, says nothing about the backend
+                circuitBreaker.releasePermission();
+            } else if (null != status && status.is5xxServerError()) {
+                circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(),
+                    new HttpServerErrorException(status));
+            } else {
+                circuitBreaker.onSuccess(duration, circuitBreaker.getTimestampUnit());
+            }
+            return ret;
+        } catch (RuntimeException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                // Cancelled, most likely a hedged attempt that lost, says nothing about the backend
+                circuitBreaker.releasePermission();
+            } else {
+                circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start,
+                    circuitBreaker.getTimestampUnit(), e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Name of the circuit breaker for a URL: the backend followed by the first path segment,
+     * lb://rest-api/drill/id/1 goes through rest-api-drill.
+     */
+    @NonNull
+    private static String circuitBreakerName(@NonNull URI uri) {
+        String path = null == uri.getPath() ? "" : uri.getPath();
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        String family = -1 == end ? path.substring(start) : path.substring(start, end);
+        return family.isEmpty() ? uri.getHost() : uri.getHost() + "-" + family;
+    }
+
+    /**
+     * Name of the bulkhead for a request, see the class description.
+     */
+    @NonNull
+    private String bulkheadName(@NonNull HttpMethod method, @NonNull URI uri) {
+        if (!bulkheadSplitServices.contains(uri.getHost())) {
+            return uri.getHost();
+        }
+        return uri.getHost() + (HttpMethod.GET.equals(method) ? "-read" : "-write");
+    }
+
+    @NonNull
+    private static <T> BackendResponse<T> unavailable(@NonNull URI uri, @NonNull Exception e) {
+        log.warn("Failing fast on {}: {}", uri, e.getMessage());
+        return new BackendResponse<T>(HttpStatus.SERVICE_UNAVAILABLE,
+            null, Constants.SERVICE_UNAVAILABLE_ERROR_DTO);
+    }
+
+    /**
+     * Send a request, with an optional JSON body.
+     *
+     * @param operation Logical operation, for metrics.
+     * @param method HTTP method.
+     * @param url URL template.
+     * @param body Object to send as the JSON body, null for none.
+     * @param extractor Extractor for the response.
+     * @param uriVariables Variables to expand the URL template with.
+     * @return Extracted BackendResponse.
+     */
+    @NonNull
+    public <T> BackendResponse<T> exchange(@NonNull String operation, @NonNull HttpMethod method,
+            @NonNull String url, @Nullable Object body, @NonNull BackendResponseExtractor<T> extractor,
+            Object... uriVariables) {
+        URI uri = restTemplate.getUriTemplateHandler().expand(url, uriVariables);
+        Timer.Sample sample = backendMetrics.start();
+        BackendResponse<T> ret = null;
+        RuntimeException thrown = null;
+        try {
+            ret = call(operation, method, uri, jsonCallback(body), extractor);
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            ret = unavailable(uri, e);
+        } catch (RuntimeException e) {
+            thrown = e;
+            throw e;
+        } finally {
+            backendMetrics.stop(sample, uri.getHost(), operation, method,
+                null == ret ? null : ret.getStatus(), thrown);
+        }
+        if (null == ret) {
+            // Should never happen, the extractor always returns a response
+            throw new IllegalStateException("No response extracted from " + method + " " + url);
+        }
+        return ret;
+    }
+
+    /**
+     * GET a resource as the backend has it right now: not shared with an identical GET in flight,
+     * not revalidated against a kept copy, and never answered with a fallback. A backend that
+     * cannot be reached gives a SERVICE_UNAVAILABLE BackendResponse instead of an exception.
+     *
+     * @param operation Logical operation, for metrics.
+     * @param url URL template.
+     * @param extractor Extractor for the response.
+     * @param uriVariables Variables to expand the URL template with.
+     * @return Extracted BackendResponse.
+     */
+    @NonNull
+    public <T> BackendResponse<T> getLive(@NonNull String operation, @NonNull String url,
+            @NonNull BackendResponseExtractor<T> extractor, Object... uriVariables) {
+        try {
+            return exchange(operation, HttpMethod.GET, url, null, extractor, uriVariables);
+        } catch (ResourceAccessException e) {
+            return unavailable(restTemplate.getUriTemplateHandler().expand(url, uriVariables), e);
+        }
+    }
+
+    /**
+     * Send a DELETE request, ignoring the response.
+     *
+     * @param operation Logical operation, for metrics.
+     * @param url URL template.
+     * @param uriVariables Variables to expand the URL template with.
+     * @throws BulkheadFullException If the bulkhead of the URL stayed full.
+     * @throws CallNotPermittedException If the circuit breaker of the URL is open.
+     */
+    public void delete(@NonNull String operation, @NonNull String url, Object... uriVariables) {
+        URI uri = restTemplate.getUriTemplateHandler().expand(url, uriVariables);
+        Timer.Sample sample = backendMetrics.start();
+        HttpStatusCode status = null;
+        RuntimeException thrown = null;
+        try {
+            status = call(operation, HttpMethod.DELETE, uri, null, ClientHttpResponse::getStatusCode);
+        } catch (RuntimeException e) {
+            thrown = e;
+            throw e;
+        } finally {
+            backendMetrics.stop(sample, uri.getHost(), operation, HttpMethod.DELETE, status, thrown);
+        }
+    }
+
+    @NonNull
+    private RequestCallback jsonCallback(@Nullable Object body) {
+        RequestCallback bodyCallback = null == body ? null : restTemplate.httpEntityCallback(body);
+        return request -> {
+            if (null != bodyCallback) {
+                bodyCallback.doWithRequest(request);
+            }
+            request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+        };
+    }
+
+    /**
+     * Response whose body counts the bytes read from it.
+     */
+    private static class CountingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private long count = 0;
+
+        CountingResponse(ClientHttpResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return new FilterInputStream(response.getBody()) {
+                @Override
+                public int read() throws IOException {
+                    int ret = super.read();
+                    if (-1 != ret) {
+                        count++;
+                    }
+                    return ret;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int ret = super.read(b, off, len);
+                    if (0 < ret) {
+                        count += ret;
+                    }
+                    return ret;
+                }
+
+                @Override
+                public long skip(long n) throws IOException {
+                    long ret = super.skip(n);
+                    count += ret;
+                    return ret;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            response.close();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.damienwesterman.defensedrill.mvc.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.damienwesterman.defensedrill.mvc.util.Constants;
+import com.damienwesterman.defensedrill.mvc.web.dto.BackendResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs independent backend reads concurrently on a bounded executor.
+ * <br><br>
+ * All calls started from the same {@link Batch} share one deadline, so a handler waits for its
+ * slowest call rather than the sum of all of them. A call that fails or misses the deadline is
+ * returned as an INTERNAL_SERVER_ERROR BackendResponse, leaving the handler to deal with it
+ * like any other backend error. A call that misses the deadline is interrupted, so are the calls
+ * still running when the handler gives up on the batch, see {@link Batch#cancel()}.
+ * <br><br>
+ * When running on virtual threads, each call gets its own virtual thread and the pool size
+ * becomes a concurrency limit instead.
+ */
+@Component
+@Slf4j
+public class BackendFanOut implements DisposableBean {
+    private final AsyncTaskExecutor executor;
+    private final Duration deadline;
+
+    public BackendFanOut(@Value("${spring.threads.virtual.enabled}") boolean virtualThreads,
+            @Value("${backend.fan-out.pool-size}") int poolSize,
+            @Value("${backend.fan-out.queue-capacity}") int queueCapacity,
+            @Value("${backend.fan-out.deadline}") Duration deadline) {
+        this.deadline = deadline;
+
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor virtualThreadExecutor = new SimpleAsyncTaskExecutor("backend-fan-out-");
+            virtualThreadExecutor.setVirtualThreads(true);
+            virtualThreadExecutor.setConcurrencyLimit(poolSize);
+            // Keep the trace of the originating request
+            virtualThreadExecutor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+            this.executor = virtualThreadExecutor;
+        } else {
+            ThreadPoolTaskExecutor threadPoolExecutor = new ThreadPoolTaskExecutor();
+            threadPoolExecutor.setThreadNamePrefix("backend-fan-out-");
+            threadPoolExecutor.setCorePoolSize(poolSize);
+            threadPoolExecutor.setMaxPoolSize(poolSize);
+            threadPoolExecutor.setQueueCapacity(queueCapacity);
+            // When saturated, fall back to making the call on the request thread
+            threadPoolExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+            // Keep the trace of the originating request
+            threadPoolExecutor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+            threadPoolExecutor.initialize();
+            this.executor = threadPoolExecutor;
+        }
+    }
+
+    /**
+     * Start a new group of concurrent calls. The deadline starts now.
+     *
+     * @return Batch to submit calls to.
+     */
+    @NonNull
+    public Batch start() {
+        return new Batch(System.nanoTime() + deadline.toNanos());
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (executor instanceof DisposableBean disposableExecutor) {
+            disposableExecutor.destroy();
+        } else if (executor instanceof AutoCloseable closeableExecutor) {
+            closeableExecutor.close();
+        }
+    }
+
+    /**
+     * Group of concurrent calls that share a deadline.
+     */
+    public class Batch {
+        private final long deadlineNanos;
+        private final List<Future<?>> calls = new ArrayList<>();
+
+        private Batch(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Start a backend call in the background.
+         *
+         * @param call Backend call to make.
+         * @return Future to pass to {@link #await(Future)}.
+         */
+        @NonNull
+        public <T> Future<BackendResponse<T>> submit(@NonNull Supplier<BackendResponse<T>> call) {
+            // The executor's own Future, cancelling it interrupts the call
+            Future<BackendResponse<T>> ret = executor.submit(call::get);
+            calls.add(ret);
+            return ret;
+        }
+
+        /**
+         * Wait for a call started with {@link #submit(Supplier)}, at most until the deadline.
+         *
+         * @param future Future of the call.
+         * @return The call's BackendResponse, or an error response if it failed or timed out.
+         */
+        @NonNull
+        public <T> BackendResponse<T> await(@NonNull Future<BackendResponse<T>> future) {
+            long remainingNanos = deadlineNanos - System.nanoTime();
+            try {
+                return future.get(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("Backend call did not complete within {}", deadline);
+            } catch (ExecutionException e) {
+                log.error("Backend call failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+            }
+
+            return new BackendResponse<T>(HttpStatus.INTERNAL_SERVER_ERROR,
+                null, Constants.GENERIC_INTERNAL_ERROR_DTO);
+        }
+
+        /**
+         * Interrupt every call of the batch that is still running, for when the handler will not
+         * await them.
+         */
+        public void cancel() {
+            calls.forEach(call -> call.cancel(true));
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.mvc.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hedges backend GETs: when the first attempt has not answered within the hedge delay, a second
+ * identical attempt is started and whichever answers first wins, the other is cancelled. Both
+ * attempts carry the same hedge ID, which the load balancer uses to send them to different
+ * instances, see {@link com.damienwesterman.defensedrill.mvc.config.LatencyAwareLoadBalancer}.
+ * <br><br>
+ * A call that may be hedged runs both of its attempts on the hedge pool while the caller waits,
+ * so that the losing attempt can be cancelled without interrupting the caller. A backend with a
+ * single instance is never hedged and its calls run on the calling thread, as do calls made
+ * while the pool has no thread for their first attempt. A hedge the pool has no thread for is
+ * dropped.
+ * <br><br>
+ * The hedge delay of each backend is a percentile of the response times of its recent first
+ * attempts, never below min-delay. Until enough of them have been seen, nothing is hedged.
+ * Hedges are capped at max-ratio of all GETs, and counted under backend.client.hedges with the
+ * outcome won, lost or rejected (over the cap or no thread available).
+ * <br><br>
+ * Only meant for idempotent requests, {@link BackendClient} only hedges GETs.
+ */
+@Component
+@Slf4j
+public class BackendHedging implements DisposableBean {
+    private final static int WINDOW_SIZE = 512;
+    private final static int MIN_SAMPLES = 64;
+    /** Hedges that can be sent in a burst after a quiet period */
+    private final static long MAX_BUDGET = 10 * 1000;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    /** Thousandths of a hedge earned by every GET */
+    private final long budgetPerCall;
+    private final DiscoveryClient discoveryClient;
+    private final AsyncTaskExecutor executor;
+    /** Starts the hedges once their delay is up */
+    private final ThreadPoolTaskScheduler hedgeScheduler;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+    /** Thousandths of a hedge currently available */
+    private final AtomicLong budget = new AtomicLong(MAX_BUDGET);
+    private final AtomicLong hedgeIds = new AtomicLong();
+
+    public BackendHedging(MeterRegistry meterRegistry, DiscoveryClient discoveryClient,
+            @Value("${spring.threads.virtual.enabled}") boolean virtualThreads,
+            @Value("${backend.client.hedging.enabled}") boolean enabled,
+            @Value("${backend.client.hedging.percentile}") double percentile,
+            @Value("${backend.client.hedging.min-delay}") Duration minDelay,
+            @Value("${backend.client.hedging.max-ratio}") double maxRatio,
+            @Value("${backend.client.hedging.pool-size}") int poolSize) {
+        this.meterRegistry = meterRegistry;
+        this.discoveryClient = discoveryClient;
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.budgetPerCall = Math.round(maxRatio * 1000);
+
+        if (!enabled) {
+            this.executor = null;
+            this.hedgeScheduler = null;
+            return;
+        } else if (virtualThreads) {
+            SimpleAsyncTaskExecutor virtualThreadExecutor = new SimpleAsyncTaskExecutor("backend-hedge-");
+            virtualThreadExecutor.setVirtualThreads(true);
+            // Keep the trace of the originating request
+            virtualThreadExecutor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+            this.executor = virtualThreadExecutor;
+        } else {
+            ThreadPoolTaskExecutor threadPoolExecutor = new ThreadPoolTaskExecutor();
+            threadPoolExecutor.setThreadNamePrefix("backend-hedge-");
+            threadPoolExecutor.setCorePoolSize(poolSize);
+            threadPoolExecutor.setMaxPoolSize(poolSize);
+            // When saturated, a call is made unhedged on its own thread, a hedge is dropped
+            threadPoolExecutor.setQueueCapacity(0);
+            // Keep the trace of the originating request
+            threadPoolExecutor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+            threadPoolExecutor.initialize();
+            this.executor = threadPoolExecutor;
+        }
+
+        this.hedgeScheduler = new ThreadPoolTaskScheduler();
+        hedgeScheduler.setThreadNamePrefix("backend-hedge-timer-");
+        // The hedge is submitted from the timer, which needs the trace to hand it on
+        hedgeScheduler.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        hedgeScheduler.initialize();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (null != hedgeScheduler) {
+            hedgeScheduler.destroy();
+        }
+        if (executor instanceof DisposableBean disposableExecutor) {
+            disposableExecutor.destroy();
+        } else if (executor instanceof AutoCloseable closeableExecutor) {
+            closeableExecutor.close();
+        }
+    }
+
+    /**
+     * Make a call, hedged if it takes too long.
+     *
+     * @param service Backend being called, hedge delays are kept per backend.
+     * @param attempt Makes one attempt of the call, given the hedge ID to send along (null when
+     *                the call cannot be hedged). May be called twice concurrently on the hedge
+     *                pool, the attempt that loses gets interrupted.
+     * @return Result of the attempt that finished first.
+     */
+    public <T> T call(@NonNull String service, @NonNull Function<String, T> attempt) {
+        if (!enabled) {
+            return attempt.apply(null);
+        }
+
+        budget.getAndUpdate(available -> Math.min(MAX_BUDGET, available + budgetPerCall));
+        LatencyWindow window = windows.computeIfAbsent(service, key -> new LatencyWindow());
+        long delay = window.delayNanos();
+        long start = System.nanoTime();
+        if (0 > delay || 2 > discoveryClient.getInstances(service).size()) {
+            T ret = attempt.apply(null);
+            window.record(System.nanoTime() - start);
+            return ret;
+        }
+
+        String hedgeId = Long.toHexString(hedgeIds.incrementAndGet());
+        Attempts<T> attempts = new Attempts<>();
+        try {
+            attempts.first = executor.submit(() -> attempts.run(0, () -> attempt.apply(hedgeId)));
+        } catch (TaskRejectedException e) {
+            log.debug("No thread for a hedged call to {}, making it unhedged", service);
+            T ret = attempt.apply(null);
+            window.record(System.nanoTime() - start);
+            return ret;
+        }
+
+        ScheduledFuture<?> hedgeTimer = hedgeScheduler.schedule(
+            () -> startHedge(service, attempt, hedgeId, attempts), Instant.now().plusNanos(delay));
+        try {
+            T ret = await(attempts.result);
+            if (null != attempts.hedge) {
+                boolean hedgeWon = 1 == attempts.winner.get();
+                meterRegistry.counter("backend.client.hedges", "service", service,
+                    "outcome", hedgeWon ? "won" : "lost").increment();
+            }
+            // If the first attempt lost, it took at least this long
+            window.record(System.nanoTime() - start);
+            return ret;
+        } finally {
+            hedgeTimer.cancel(false);
+            // Whatever is still running lost, or the caller gave up
+            attempts.cancel();
+        }
+    }
+
+    /**
+     * Start the hedge of a call whose first attempt is past the hedge delay, unless the call is
+     * over by now or cannot be hedged.
+     */
+    private <T> void startHedge(@NonNull String service, @NonNull Function<String, T> attempt,
+            @NonNull String hedgeId, @NonNull Attempts<T> attempts) {
+        if (attempts.result.isDone()) {
+            return;
+        } else if (!takeBudget()) {
+            meterRegistry.counter("backend.client.hedges", "service", service, "outcome", "rejected")
+                .increment();
+            return;
+        }
+
+        int index = attempts.started.getAndIncrement();
+        try {
+            attempts.hedge = executor.submit(() -> attempts.run(index, () -> attempt.apply(hedgeId)));
+        } catch (TaskRejectedException e) {
+            attempts.started.decrementAndGet();
+            budget.getAndUpdate(available -> Math.min(MAX_BUDGET, available + 1000));
+            meterRegistry.counter("backend.client.hedges", "service", service, "outcome", "rejected")
+                .increment();
+            log.debug("No thread to hedge a call to {}", service);
+            return;
+        }
+        if (attempts.result.isDone()) {
+            // The call finished while the hedge was being submitted
+            attempts.hedge.cancel(true);
+        }
+    }
+
+    /**
+     * Attempts of one call: the first response completes the result, a failure only does once
+     * every attempt started so far has failed.
+     */
+    private static class Attempts<T> {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        /** The first attempt is started on creation */
+        final AtomicInteger started = new AtomicInteger(1);
+        final AtomicInteger failed = new AtomicInteger();
+        /** Index of the attempt whose result completed the call, -1 until then */
+        final AtomicInteger winner = new AtomicInteger(-1);
+        volatile Future<?> first;
+        volatile Future<?> hedge;
+
+        /**
+         * Make an attempt, and complete the call with its response if it is the first.
+         */
+        void run(int index, @NonNull Supplier<T> attempt) {
+            try {
+                T response = attempt.get();
+                if (winner.compareAndSet(-1, index)) {
+                    result.complete(response);
+                }
+            } catch (RuntimeException e) {
+                if (failed.incrementAndGet() >= started.get() && winner.compareAndSet(-1, index)) {
+                    result.completeExceptionally(e);
+                }
+            }
+        }
+
+        /**
+         * Cancel the attempts, interrupting any that is still being made.
+         */
+        void cancel() {
+            Future<?> firstAttempt = first;
+            if (null != firstAttempt) {
+                firstAttempt.cancel(true);
+            }
+            Future<?> hedgeAttempt = hedge;
+            if (null != hedgeAttempt) {
+                hedgeAttempt.cancel(true);
+            }
+        }
+    }
+
+    private <T> T await(@NonNull CompletableFuture<T> result) {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted while waiting for backend response");
+        }
+    }
+
+    private boolean takeBudget() {
+        long available;
+        do {
+            available = budget.get();
+            if (1000 > available) {
+                return false;
+            }
+        } while (!budget.compareAndSet(available, available - 1000));
+        return true;
+    }
+
+    /**
+     * Response times of the last {@link #WINDOW_SIZE} calls to a backend, and the hedge delay
+     * derived from them, recomputed every {@link #MIN_SAMPLES} calls.
+     */
+    private class LatencyWindow {
+        private final long[] samples = new long[WINDOW_SIZE];
+        private final AtomicLong recorded = new AtomicLong();
+        private volatile long delayNanos = -1;
+
+        void record(long nanos) {
+            long count = recorded.getAndIncrement();
+            samples[(int) (count % WINDOW_SIZE)] = nanos;
+            if (MIN_SAMPLES - 1 == count % MIN_SAMPLES) {
+                long[] sorted = Arrays.copyOf(samples, (int) Math.min(count + 1, WINDOW_SIZE));
+                Arrays.sort(sorted);
+                int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+                delayNanos = Math.max(minDelayNanos, sorted[Math.max(0, index)]);
+            }
+        }
+
+        /**
+         * Current hedge delay, negative until enough calls were recorded.
+         */
+        long delayNanos() {
+            return delayNanos;
+        }
+    }
+}
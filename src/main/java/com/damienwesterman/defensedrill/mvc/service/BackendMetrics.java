@@ -0,0 +1,123 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.mvc.service;
+
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Metrics of the calls made through {@link BackendClient}, tagged by backend (rest-api, security)
+ * and logical operation (drill.get, category.getAll, user.create, ...) rather than by URL:
+ * <ul>
+ *   <li>backend.client.calls: timer with a percentile histogram, also tagged by method, status,
+ *   outcome and exception. Measures what the calling service sees, so includes waiting on
+ *   an identical call in flight, hedging and fallbacks.</li>
+ *   <li>backend.client.response.size: bytes read from each response body, with a percentile histogram.</li>
+ *   <li>backend.client.errors: calls that ended in an exception or a 5xx status, tagged by error.</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class BackendMetrics {
+    private final static String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Start timing a call, to be passed to {@link #stop(Timer.Sample, String, String, HttpMethod, HttpStatusCode, Throwable)}.
+     */
+    @NonNull
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Record a finished call.
+     *
+     * @param sample Returned by {@link #start()}.
+     * @param backend Backend that was called.
+     * @param operation Logical operation.
+     * @param method HTTP method.
+     * @param status Status of the response, null if the call threw.
+     * @param exception Exception the call threw, null if it returned.
+     */
+    public void stop(@NonNull Timer.Sample sample, @NonNull String backend, @NonNull String operation,
+            @NonNull HttpMethod method, @Nullable HttpStatusCode status, @Nullable Throwable exception) {
+        String statusName = null == status ? NONE : Integer.toString(status.value());
+        String outcome = null == status ? Outcome.UNKNOWN.name() : Outcome.forStatus(status.value()).name();
+        String exceptionName = null == exception ? NONE : exception.getClass().getSimpleName();
+
+        sample.stop(Timer.builder("backend.client.calls")
+            .description("Calls to the backends, by logical operation")
+            .tag("backend", backend)
+            .tag("operation", operation)
+            .tag("method", method.name())
+            .tag("status", statusName)
+            .tag("outcome", outcome)
+            .tag("exception", exceptionName)
+            .publishPercentileHistogram()
+            .register(meterRegistry));
+
+        if (null != exception || (null != status && status.is5xxServerError())) {
+            Counter.builder("backend.client.errors")
+                .description("Calls to the backends that threw or returned a 5xx status")
+                .tag("backend", backend)
+                .tag("operation", operation)
+                .tag("error", null != exception ? exceptionName : statusName)
+                .register(meterRegistry)
+                .increment();
+        }
+    }
+
+    /**
+     * Record the size of a response body.
+     *
+     * @param backend Backend that was called.
+     * @param operation Logical operation.
+     * @param bytes Bytes read from the body.
+     */
+    public void recordResponseSize(@NonNull String backend, @NonNull String operation, long bytes) {
+        DistributionSummary.builder("backend.client.response.size")
+            .description("Size of the response bodies of the backends")
+            .baseUnit("bytes")
+            .tag("backend", backend)
+            .tag("operation", operation)
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(bytes);
+    }
+}
@@ -0,0 +1,189 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.damienwesterman.defensedrill.mvc.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.client.ResponseExtractor;
+
+import com.damienwesterman.defensedrill.mvc.util.Constants;
+import com.damienwesterman.defensedrill.mvc.web.dto.BackendResponse;
+import com.damienwesterman.defensedrill.mvc.web.dto.ErrorMessageDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Turns a backend response into a {@link BackendResponse} in a single pass.
+ * <br><br>
+ * What to do with a response is looked up by its status in a dispatch table. Bodies are decoded
+ * straight from the response stream with pre-built {@link ObjectReader}s, into either the success
+ * type or an {@link ErrorMessageDTO}. Any status without an entry, as well as a body that cannot
+ * be decoded, results in {@link Constants#GENERIC_INTERNAL_ERROR_DTO}.
+ * <br><br>
+ * Create one through {@link BackendClient#extractor()}.
+ */
+@Slf4j
+public class BackendResponseExtractor<T> implements ResponseExtractor<BackendResponse<T>> {
+    @FunctionalInterface
+    private static interface StatusHandler<T> {
+        BackendResponse<T> handle(ClientHttpResponse response) throws IOException;
+    }
+
+    private final Map<HttpStatus, StatusHandler<T>> dispatchTable;
+    private final List<JavaType> bodyTypes;
+
+    private BackendResponseExtractor(Map<HttpStatus, StatusHandler<T>> dispatchTable, List<JavaType> bodyTypes) {
+        this.dispatchTable = dispatchTable;
+        this.bodyTypes = bodyTypes;
+    }
+
+    /**
+     * Types the bodies are decoded into. The same response can be decoded into different types
+     * (ex. a full object or a summary of it), so anything keeping decoded bodies has to tell them apart.
+     */
+    @NonNull
+    List<JavaType> bodyTypes() {
+        return bodyTypes;
+    }
+
+    @Override
+    @NonNull
+    public BackendResponse<T> extractData(@NonNull ClientHttpResponse response) throws IOException {
+        HttpStatus status = HttpStatus.resolve(response.getStatusCode().value());
+        StatusHandler<T> handler = null == status ? null : dispatchTable.get(status);
+        if (null == handler) {
+            return internalError();
+        }
+
+        try {
+            return handler.handle(response);
+        } catch (JsonProcessingException e) {
+            log.error(e.toString());
+            return internalError();
+        }
+    }
+
+    @NonNull
+    private static <T> BackendResponse<T> internalError() {
+        return new BackendResponse<T>(HttpStatus.INTERNAL_SERVER_ERROR,
+            null, Constants.GENERIC_INTERNAL_ERROR_DTO);
+    }
+
+    /**
+     * Builds the dispatch table of a {@link BackendResponseExtractor}.
+     */
+    public static class Builder<T> {
+        private final ObjectReader errorReader;
+        private final Map<HttpStatus, StatusHandler<T>> dispatchTable = new EnumMap<>(HttpStatus.class);
+        private final List<JavaType> bodyTypes = new ArrayList<>();
+
+        Builder(@NonNull ObjectReader errorReader) {
+            this.errorReader = errorReader;
+        }
+
+        /**
+         * Decode the body with the given reader.
+         *
+         * @param status Response status.
+         * @param reader Reader for T, see {@link BackendClient#readerFor(Class)}.
+         */
+        @NonNull
+        public Builder<T> onBody(@NonNull HttpStatus status, @NonNull ObjectReader reader) {
+            bodyTypes.add(reader.getValueType());
+            dispatchTable.put(status, response ->
+                new BackendResponse<T>(status, reader.readValue(response.getBody()), null));
+            return this;
+        }
+
+        /**
+         * Return a fixed value, the body is ignored.
+         *
+         * @param status Response status.
+         * @param value Supplier of the value to return.
+         */
+        @NonNull
+        public Builder<T> onValue(@NonNull HttpStatus status, @NonNull Supplier<T> value) {
+            dispatchTable.put(status, response ->
+                new BackendResponse<T>(status, value.get(), null));
+            return this;
+        }
+
+        /**
+         * Decode the body as an {@link ErrorMessageDTO}.
+         *
+         * @param status Response status.
+         */
+        @NonNull
+        public Builder<T> onErrorBody(@NonNull HttpStatus status) {
+            return onErrorBody(status, status);
+        }
+
+        /**
+         * Decode the body as an {@link ErrorMessageDTO}, reporting it under a different status.
+         *
+         * @param status Response status.
+         * @param reportedStatus Status of the returned BackendResponse.
+         */
+        @NonNull
+        public Builder<T> onErrorBody(@NonNull HttpStatus status, @NonNull HttpStatus reportedStatus) {
+            dispatchTable.put(status, response ->
+                new BackendResponse<T>(reportedStatus, null,
+                    errorReader.readValue(response.getBody(), ErrorMessageDTO.class)));
+            return this;
+        }
+
+        /**
+         * Return a fixed error, the body is ignored.
+         *
+         * @param status Response status.
+         * @param error Supplier of the error to return.
+         */
+        @NonNull
+        public Builder<T> onError(@NonNull HttpStatus status, @NonNull Supplier<ErrorMessageDTO> error) {
+            dispatchTable.put(status, response ->
+                new BackendResponse<T>(status, null, error.get()));
+            return this;
+        }
+
+        @NonNull
+        public BackendResponseExtractor<T> build() {
+            return new BackendResponseExtractor<>(new EnumMap<>(dispatchTable), List.copyOf(bodyTypes));
+        }
+    }
+}
@@ -0,0 +1,517 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.damienwesterman.defensedrill.mvc.service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import com.damienwesterman.defensedrill.mvc.web.dto.BackendResponse;
+import com.damienwesterman.defensedrill.mvc.web.dto.DrillResponseDTO;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read-through cache for the catalog (Drills, Categories and Sub-Categories) retrieved from
+ * the rest-api backend.
+ * <br><br>
+ * Each catalog type has its own {@link Region} so that writes can invalidate exactly the
+ * entries they affect. Only successful responses are kept, errors and fallbacks (see
+ * {@link BackendResponse#isFallback()}) always go back to the backend on the next request. Concurrent loads of the same key share a single backend call.
+ * <br><br>
+ * Every region also has a version that changes whenever its content may have changed: on each
+ * invalidation, and when a key is loaded or refreshed with a body other than the one it was last
+ * loaded with. Expiry alone does not change it, neither do errors, which are not cached. As long
+ * as the version of a region stays the same, anything rendered from the entries this instance has
+ * would render the same way again. Those entries may still be outdated by a write through another
+ * instance, which only shows once they expire and get reloaded: a thread can record the keys it
+ * reads (see {@link #startRecordingReads()}) to check later whether they are all still fresh.
+ * <br><br>
+ * With stale-while-revalidate enabled, the lists retrieved through
+ * {@link #getRefreshed(Region, String, Supplier)} are reloaded in the background every
+ * refresh-interval, so requests do not wait on the backend for them. If the backend cannot be
+ * reached, a list past its ttl keeps being served for up to max-staleness, counted under the
+ * catalog.cache.stale.served metric.
+ */
+@Component
+@Slf4j
+public class CatalogCache implements DisposableBean {
+    public static enum Region {
+        DRILL,
+        CATEGORY,
+        SUB_CATEGORY
+    }
+
+    public final static String ALL_KEY = "all";
+    private final static Object NO_BODY = new Object();
+
+    private final boolean enabled;
+    private final Map<Region, AsyncCache<String, BackendResponse<?>>> regions;
+    private final Map<Region, AtomicLong> versions;
+    /** Body each key was last loaded with, kept past expiry to tell whether a reload changed anything */
+    private final Map<Region, Cache<String, Object>> loadedBodies;
+    private final Duration ttl;
+    private final Duration maxStaleness;
+    private final Duration refreshInterval;
+    /** Loaders of the keys kept fresh in the background, per region */
+    private final Map<Region, Map<String, Supplier<BackendResponse<?>>>> refreshers;
+    private final Map<Region, Counter> staleServedCounters;
+    private final Set<String> refreshing;
+    private final ThreadPoolTaskScheduler refreshScheduler;
+    /** Keys read by each thread that is recording its reads */
+    private final ThreadLocal<Set<RegionKey>> recordedReads = new ThreadLocal<>();
+
+    /**
+     * Key of an entry, along with its region.
+     */
+    public static record RegionKey(Region region, String key) { }
+
+    public CatalogCache(MeterRegistry meterRegistry,
+            @Value("${catalog.cache.enabled}") boolean enabled,
+            @Value("${catalog.cache.ttl}") Duration ttl,
+            @Value("${catalog.cache.max-size}") long maxSize,
+            @Value("${catalog.cache.stale-while-revalidate.enabled}") boolean staleWhileRevalidate,
+            @Value("${catalog.cache.stale-while-revalidate.refresh-interval}") Duration refreshInterval,
+            @Value("${catalog.cache.stale-while-revalidate.max-staleness}") Duration maxStaleness) {
+        this.enabled = enabled;
+        this.regions = new EnumMap<>(Region.class);
+        this.versions = new EnumMap<>(Region.class);
+        this.loadedBodies = new EnumMap<>(Region.class);
+        this.ttl = ttl;
+        this.maxStaleness = staleWhileRevalidate ? maxStaleness : Duration.ZERO;
+        this.refreshInterval = refreshInterval;
+        this.refreshers = new EnumMap<>(Region.class);
+        this.staleServedCounters = new EnumMap<>(Region.class);
+        this.refreshing = ConcurrentHashMap.newKeySet();
+        for (Region region : Region.values()) {
+            versions.put(region, new AtomicLong());
+            loadedBodies.put(region, Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build());
+            Map<String, Supplier<BackendResponse<?>>> regionRefreshers = new ConcurrentHashMap<>();
+            refreshers.put(region, regionRefreshers);
+            staleServedCounters.put(region, Counter.builder("catalog.cache.stale.served")
+                .description("Catalog lists served past their ttl while waiting on a background refresh")
+                .tag("region", region.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry));
+            regions.put(region, Caffeine.newBuilder()
+                // Refreshed keys stay around for max-staleness past the ttl, see isStale()
+                .expireAfter(new Expiry<String, BackendResponse<?>>() {
+                    @Override
+                    public long expireAfterCreate(String key, BackendResponse<?> value, long currentTime) {
+                        return regionRefreshers.containsKey(key)
+                            ? ttl.plus(CatalogCache.this.maxStaleness).toNanos()
+                            : ttl.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, BackendResponse<?> value,
+                            long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, BackendResponse<?> value,
+                            long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumSize(maxSize)
+                .buildAsync());
+        }
+
+        if (enabled && staleWhileRevalidate) {
+            this.refreshScheduler = new ThreadPoolTaskScheduler();
+            refreshScheduler.setThreadNamePrefix("catalog-refresh-");
+            refreshScheduler.initialize();
+            refreshScheduler.scheduleWithFixedDelay(this::refreshAll, refreshInterval);
+        } else {
+            this.refreshScheduler = null;
+        }
+
+        log.info("Catalog cache {} (ttl={}, max-size={}, stale-while-revalidate={})",
+            enabled ? "enabled" : "disabled", ttl, maxSize,
+            null != refreshScheduler
+                ? "every " + refreshInterval + ", max-staleness " + maxStaleness
+                : "disabled");
+    }
+
+    @Override
+    public void destroy() {
+        if (null != refreshScheduler) {
+            refreshScheduler.destroy();
+        }
+    }
+
+    /**
+     * Whether the cache is enabled. When it is not, {@link #version(Region)} means nothing.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Current version of a region, see the class description.
+     *
+     * @param region Region to check.
+     * @return Version of the region.
+     */
+    public long version(@NonNull Region region) {
+        return versions.get(region).get();
+    }
+
+    /**
+     * Key for a lookup by ID.
+     */
+    @NonNull
+    public static String idKey(@NonNull Long id) {
+        return "id:" + id;
+    }
+
+    /**
+     * Key for a lookup by name. Names are case insensitive in the backend, so are the keys.
+     */
+    @NonNull
+    public static String nameKey(@NonNull String name) {
+        return "name:" + name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Return the cached response for the key, or call the loader and cache its response if it
+     * was successful.
+     *
+     * @param region Region the key belongs to.
+     * @param key Key of the entry, see {@link #ALL_KEY}, {@link #idKey(Long)} and {@link #nameKey(String)}.
+     * @param loader Backend call to make on a cache miss.
+     * @return BackendResponse from the cache or the loader.
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public <T> BackendResponse<T> get(@NonNull Region region, @NonNull String key,
+            @NonNull Supplier<BackendResponse<T>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        Set<RegionKey> reads = recordedReads.get();
+        if (null != reads) {
+            reads.add(new RegionKey(region, key));
+        }
+
+        var cache = regions.get(region);
+        CompletableFuture<BackendResponse<?>> ourLoad = new CompletableFuture<>();
+        CompletableFuture<BackendResponse<?>> existing = cache.asMap().putIfAbsent(key, ourLoad);
+        if (null != existing) {
+            try {
+                return (BackendResponse<T>) existing.join();
+            } catch (CancellationException e) {
+                // Its caller gave up on it, load it ourselves
+                return get(region, key, loader);
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw e;
+            }
+        }
+
+        // We own the load, run it on this thread so that nothing is held while waiting on the backend
+        BackendResponse<T> response;
+        try {
+            response = loader.get();
+        } catch (RuntimeException e) {
+            cache.asMap().remove(key, ourLoad);
+            if (Thread.currentThread().isInterrupted()) {
+                // Cancelled, the failure is ours alone, not the backend's
+                ourLoad.cancel(false);
+            } else {
+                ourLoad.completeExceptionally(e);
+            }
+            throw e;
+        }
+
+        if (response.hasError() && Thread.currentThread().isInterrupted()) {
+            // Cancelled while reading the response, the error is ours alone
+            cache.asMap().remove(key, ourLoad);
+            ourLoad.cancel(false);
+            return response;
+        } else if (response.hasError() || response.isFallback()) {
+            cache.asMap().remove(key, ourLoad);
+        } else {
+            recordLoad(region, key, response.getResponse());
+        }
+        ourLoad.complete(response);
+
+        return response;
+    }
+
+    /**
+     * Same as {@link #get(Region, String, Supplier)}, for keys that are worth keeping fresh in the
+     * background (the lists of everything in a region). When stale-while-revalidate is enabled,
+     * the loader is remembered and called again every refresh-interval, and an entry past its
+     * ttl is still returned while it gets reloaded.
+     *
+     * @param region Region the key belongs to.
+     * @param key Key of the entry.
+     * @param loader Backend call to make on a cache miss or refresh.
+     * @return BackendResponse from the cache or the loader.
+     */
+    @NonNull
+    public <T> BackendResponse<T> getRefreshed(@NonNull Region region, @NonNull String key,
+            @NonNull Supplier<BackendResponse<T>> loader) {
+        if (!enabled || null == refreshScheduler) {
+            return get(region, key, loader);
+        }
+
+        // Registered before anything is cached so that the entry gets the longer expiry
+        refreshers.get(region).putIfAbsent(key, loader::get);
+        if (isStale(region, key)) {
+            staleServedCounters.get(region).increment();
+            refreshScheduler.execute(() -> refresh(region, key));
+        }
+
+        return get(region, key, loader);
+    }
+
+    /**
+     * Start recording the keys read by this thread, until {@link #stopRecordingReads()}.
+     */
+    public void startRecordingReads() {
+        recordedReads.set(new LinkedHashSet<>());
+    }
+
+    /**
+     * Stop recording the keys read by this thread.
+     *
+     * @return Keys read since {@link #startRecordingReads()}, empty if it was not called.
+     */
+    @NonNull
+    public Set<RegionKey> stopRecordingReads() {
+        Set<RegionKey> ret = recordedReads.get();
+        recordedReads.remove();
+        return null == ret ? Set.of() : ret;
+    }
+
+    /**
+     * Whether the key has a successful entry within its ttl, that would be returned without
+     * going to the backend.
+     *
+     * @param regionKey Key to check.
+     * @return Whether the entry is fresh, always false when the cache is disabled.
+     */
+    public boolean isFresh(@NonNull RegionKey regionKey) {
+        if (!enabled) {
+            return false;
+        }
+        var future = regions.get(regionKey.region()).getIfPresent(regionKey.key());
+        if (null == future || !future.isDone() || future.isCompletedExceptionally()) {
+            return false;
+        }
+        // Refreshed keys are kept past their ttl, see getRefreshed()
+        return !refreshers.get(regionKey.region()).containsKey(regionKey.key())
+            || age(regionKey.region(), regionKey.key()).compareTo(ttl) < 0;
+    }
+
+    /**
+     * Whether the key has a completed entry that is past its ttl.
+     */
+    private boolean isStale(@NonNull Region region, @NonNull String key) {
+        var future = regions.get(region).getIfPresent(key);
+        if (null == future || !future.isDone()) {
+            return false;
+        }
+        return age(region, key).compareTo(ttl) >= 0;
+    }
+
+    /**
+     * Time since the entry of a refreshed key was written, zero if there is none.
+     */
+    @NonNull
+    private Duration age(@NonNull Region region, @NonNull String key) {
+        return regions.get(region).synchronous().policy().expireVariably()
+            .flatMap(expiry -> expiry.getExpiresAfter(key))
+            .map(remaining -> ttl.plus(maxStaleness).minus(remaining))
+            .orElse(Duration.ZERO);
+    }
+
+    /**
+     * Reload every refreshed key that was not written within the last refresh-interval.
+     */
+    private void refreshAll() {
+        for (Region region : Region.values()) {
+            for (String key : refreshers.get(region).keySet()) {
+                var future = regions.get(region).getIfPresent(key);
+                if (null == future || (future.isDone()
+                        && age(region, key).compareTo(refreshInterval) >= 0)) {
+                    refresh(region, key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reload a refreshed key. On success the entry is replaced, unless it was invalidated or
+     * reloaded in the meantime. On failure, including a fallback response, the current entry is
+     * kept until it expires.
+     */
+    @SuppressWarnings("unchecked")
+    private void refresh(@NonNull Region region, @NonNull String key) {
+        String refreshingKey = region + ":" + key;
+        if (!refreshing.add(refreshingKey)) {
+            return;
+        }
+
+        try {
+            var loader = refreshers.get(region).get(key);
+            var cache = regions.get(region).asMap();
+            var current = cache.get(key);
+            if (null == current) {
+                // Nothing to replace, load it like any miss
+                get(region, key, () -> (BackendResponse<Object>) loader.get());
+                return;
+            }
+            if (!current.isDone() || current.isCompletedExceptionally()) {
+                return;
+            }
+
+            BackendResponse<?> response = loader.get();
+            if (response.hasError()) {
+                log.warn("Could not refresh catalog {} {}: {}", region, key, response.getError());
+                return;
+            }
+            if (response.isFallback()) {
+                // Not newer than what we have, replacing it would extend its expiry past max-staleness
+                log.warn("Could not refresh catalog {} {}: backend unavailable", region, key);
+                return;
+            }
+            if (cache.replace(key, current, CompletableFuture.completedFuture(response))) {
+                recordLoad(region, key, response.getResponse());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh catalog {} {}: {}", region, key, e.toString());
+        } finally {
+            refreshing.remove(refreshingKey);
+        }
+    }
+
+    /**
+     * Remember the body a key was loaded with, and move the version of its region on if that is
+     * not the body it was last loaded with. A key loaded for the first time, or forgotten since,
+     * counts as changed.
+     */
+    private void recordLoad(@NonNull Region region, @NonNull String key, Object body) {
+        Object loaded = null == body ? NO_BODY : body;
+        Object previous = loadedBodies.get(region).asMap().put(key, loaded);
+        if (!Objects.deepEquals(previous, loaded)) {
+            versions.get(region).incrementAndGet();
+        }
+    }
+
+    /**
+     * Remove the given keys from a region.
+     *
+     * @param region Region the keys belong to.
+     * @param keys Keys to remove.
+     */
+    public void invalidate(@NonNull Region region, @NonNull String... keys) {
+        var cache = regions.get(region).asMap();
+        for (String key : keys) {
+            cache.remove(key);
+        }
+        versions.get(region).incrementAndGet();
+    }
+
+    /**
+     * Remove every entry in a region whose cached body matches the predicate. Loads that are
+     * still in flight are removed as well, as they may be returning data from before the write.
+     *
+     * @param region Region to search.
+     * @param bodyPredicate Test on {@link BackendResponse#getResponse()} of each entry.
+     */
+    public void invalidateIf(@NonNull Region region, @NonNull Predicate<Object> bodyPredicate) {
+        regions.get(region).asMap().entrySet().removeIf(entry -> {
+            var future = entry.getValue();
+            if (!future.isDone()) {
+                return true;
+            }
+            if (future.isCompletedExceptionally()) {
+                return false;
+            }
+            return bodyPredicate.test(future.join().getResponse());
+        });
+        versions.get(region).incrementAndGet();
+    }
+
+    /**
+     * Remove every entry in a region.
+     *
+     * @param region Region to clear.
+     */
+    public void invalidateAll(@NonNull Region region) {
+        regions.get(region).synchronous().invalidateAll();
+        versions.get(region).incrementAndGet();
+    }
+
+    /**
+     * Flatten a cached Drill response body into a stream.
+     *
+     * @param body {@link BackendResponse#getResponse()} of a {@link Region#DRILL} entry.
+     * @return Stream of the contained Drills, empty if the body does not contain Drills.
+     */
+    @NonNull
+    public static Stream<DrillResponseDTO> drillsIn(Object body) {
+        if (body instanceof DrillResponseDTO drill) {
+            return Stream.of(drill);
+        }
+        return Stream.empty();
+    }
+}
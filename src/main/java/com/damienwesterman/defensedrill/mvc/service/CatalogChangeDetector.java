@@ -0,0 +1,99 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.mvc.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Decides whether a catalog update is worth sending, from the fields that differ between the
+ * update and the state freshly fetched from the backend. Forms are often saved again unchanged,
+ * and each of those would otherwise cost a full PUT (and the cache invalidations after it).
+ * <br><br>
+ * Metrics:
+ * <ul>
+ *   <li>catalog.update.skipped: updates not sent because nothing changed, tagged by entity.</li>
+ *   <li>catalog.update.changed.fields: fields changed by the updates sent, tagged by entity and field.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class CatalogChangeDetector {
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    public CatalogChangeDetector(MeterRegistry meterRegistry,
+            @Value("${catalog.update.skip-unchanged.enabled}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Whether updates should be compared at all. When not, there is no need to fetch the current state.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record the fields an update changes.
+     *
+     * @param entity Kind of entity updated (drill, category, sub_category).
+     * @param id ID of the entity updated.
+     * @param changedFields Fields that differ from the current state.
+     * @return true if nothing changed and the update should not be sent.
+     */
+    public boolean isUnchanged(@NonNull String entity, @NonNull Long id, @NonNull List<String> changedFields) {
+        if (changedFields.isEmpty()) {
+            log.debug("Skipping update of {} {}, nothing changed", entity, id);
+            Counter.builder("catalog.update.skipped")
+                .description("Catalog updates not sent because nothing changed")
+                .tag("entity", entity)
+                .register(meterRegistry)
+                .increment();
+            return true;
+        }
+
+        log.info("Updating {} {}, changed: {}", entity, id, changedFields);
+        for (String field : changedFields) {
+            Counter.builder("catalog.update.changed.fields")
+                .description("Fields changed by the catalog updates sent")
+                .tag("entity", entity)
+                .tag("field", field)
+                .register(meterRegistry)
+                .increment();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,164 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.damienwesterman.defensedrill.mvc.service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import com.damienwesterman.defensedrill.mvc.service.CatalogCache.Region;
+
+/**
+ * In-memory index of catalog names, for prefix (typeahead) searches that never go to the backend.
+ * <br><br>
+ * Each {@link Region} keeps its names case folded in a sorted map, so a prefix search is a
+ * range scan returning matches in alphabetical order. The index is kept in sync with the
+ * list of all entries held by {@link CatalogCache}: whenever that list is reloaded, only the
+ * entries that were added, renamed or removed are applied.
+ */
+@Component
+public class CatalogNameIndex {
+    /**
+     * Entry matching a search.
+     *
+     * @param id ID of the entry.
+     * @param name Name of the entry, as it was given.
+     */
+    public static record Match(@NonNull Long id, @NonNull String name) { }
+
+    private static class RegionIndex {
+        /** Key is the folded name followed by the ID, so equal names do not clash. */
+        private final ConcurrentSkipListMap<String, Match> byName = new ConcurrentSkipListMap<>();
+        /** Current key of each ID, only used while syncing. */
+        private final Map<Long, String> keyById = new HashMap<>();
+        /** The list the index was last synced with. */
+        private volatile Object syncedWith;
+    }
+
+    private final Map<Region, RegionIndex> indexes;
+
+    public CatalogNameIndex() {
+        this.indexes = new EnumMap<>(Region.class);
+        for (Region region : Region.values()) {
+            indexes.put(region, new RegionIndex());
+        }
+    }
+
+    /**
+     * Bring the index of a region in line with the list of all of its entries. Does nothing if
+     * the index was already synced with this exact list, which is the case on every cache hit.
+     *
+     * @param region Region of the entries.
+     * @param entries All entries of the region.
+     * @param idOf ID of an entry.
+     * @param nameOf Name of an entry.
+     */
+    public <T> void sync(@NonNull Region region, @NonNull T[] entries,
+            @NonNull Function<T, Long> idOf, @NonNull Function<T, String> nameOf) {
+        RegionIndex index = indexes.get(region);
+        if (entries == index.syncedWith) {
+            return;
+        }
+
+        synchronized (index) {
+            if (entries == index.syncedWith) {
+                return;
+            }
+
+            Set<Long> present = new HashSet<>();
+            for (T entry : entries) {
+                Long id = idOf.apply(entry);
+                String name = nameOf.apply(entry);
+                if (null == id || null == name) {
+                    continue;
+                }
+
+                present.add(id);
+                String key = fold(name) + '\0' + id;
+                String previousKey = index.keyById.put(id, key);
+                if (!key.equals(previousKey)) {
+                    if (null != previousKey) {
+                        index.byName.remove(previousKey);
+                    }
+                    index.byName.put(key, new Match(id, name));
+                } else if (!name.equals(index.byName.get(key).name())) {
+                    // Only the case of the name changed
+                    index.byName.put(key, new Match(id, name));
+                }
+            }
+            index.keyById.entrySet().removeIf(idAndKey -> {
+                if (present.contains(idAndKey.getKey())) {
+                    return false;
+                }
+                index.byName.remove(idAndKey.getValue());
+                return true;
+            });
+
+            index.syncedWith = entries;
+        }
+    }
+
+    /**
+     * Whether the region was synced at least once.
+     */
+    public boolean isSynced(@NonNull Region region) {
+        return null != indexes.get(region).syncedWith;
+    }
+
+    /**
+     * Find the entries whose name starts with the prefix, case insensitive.
+     *
+     * @param region Region to search.
+     * @param prefix Start of the name.
+     * @param limit Maximum number of matches to return.
+     * @return Matches in alphabetical order.
+     */
+    @NonNull
+    public List<Match> search(@NonNull Region region, @NonNull String prefix, int limit) {
+        String from = fold(prefix);
+        return indexes.get(region).byName
+            .subMap(from, true, from + Character.MAX_VALUE, false)
+            .values().stream()
+            .limit(limit)
+            .toList();
+    }
+
+    @NonNull
+    private static String fold(@NonNull String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -27,10 +27,10 @@
 package com.damienwesterman.defensedrill.mvc.service;
 
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import com.damienwesterman.defensedrill.mvc.service.CatalogCache.Region;
 import com.damienwesterman.defensedrill.mvc.util.Constants;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.damienwesterman.defensedrill.mvc.web.dto.DrillResponseDTO;
 
 /**
  * Service for interacting with the Category backend.
@@ -39,7 +39,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public class CategoryApiService extends AbstractCategoryApiService{
     private final static String API_ENDPOINT = Constants.REST_API_BASE_ADDRESS + "/category";
 
-    public CategoryApiService(RestTemplate restTemplate, ObjectMapper objectMapper) {
-        super(restTemplate, objectMapper, API_ENDPOINT);
+    public CategoryApiService(BackendClient backendClient, CatalogCache catalogCache,
+            CatalogNameIndex catalogNameIndex, CatalogChangeDetector catalogChangeDetector) {
+        super(backendClient, API_ENDPOINT, catalogCache, catalogNameIndex, catalogChangeDetector,
+            Region.CATEGORY, DrillResponseDTO::getCategories);
     }
 }
@@ -26,40 +26,41 @@
 
 package com.damienwesterman.defensedrill.mvc.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.HttpStatusCode;
-import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import com.damienwesterman.defensedrill.mvc.service.CatalogCache.Region;
 import com.damienwesterman.defensedrill.mvc.util.Constants;
 import com.damienwesterman.defensedrill.mvc.util.Utility;
 import com.damienwesterman.defensedrill.mvc.web.dto.BackendResponse;
 import com.damienwesterman.defensedrill.mvc.web.dto.DrillCreateDTO;
 import com.damienwesterman.defensedrill.mvc.web.dto.DrillResponseDTO;
+import com.damienwesterman.defensedrill.mvc.web.dto.DrillSummaryDTO;
 import com.damienwesterman.defensedrill.mvc.web.dto.DrillUpdateDTO;
 import com.damienwesterman.defensedrill.mvc.web.dto.ErrorMessageDTO;
 import com.damienwesterman.defensedrill.mvc.web.dto.InstructionsDTO;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 /**
  * Service to interact with the Drill Rest API backend.
  */
 @Service
-@RequiredArgsConstructor
-@Slf4j
 public class DrillApiService {
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    private final BackendClient backendClient;
+    private final CatalogCache catalogCache;
+    private final CatalogNameIndex catalogNameIndex;
+    private final CatalogChangeDetector catalogChangeDetector;
+    private final ObjectReader drillReader;
+    private final ObjectReader instructionsListReader;
+    private final BackendResponseExtractor<DrillSummaryDTO[]> getAllSummariesExtractor;
+    private final BackendResponseExtractor<DrillResponseDTO> createExtractor;
+    private final BackendResponseExtractor<InstructionsDTO> instructionDetailsExtractor;
 
     private final static String API_ENDPOINT = Constants.REST_API_BASE_ADDRESS + "/drill";
     private final static String ID_ENDPOINT = "/id/{id}";
@@ -68,6 +69,30 @@ public class DrillApiService {
     private final static String ADD_SUB_CATEGORY_ENDPOINT = "/add_sub_category/{categoryId}";
     private final static String INSTRUCTIONS_LIST_ENDPOINT = ID_ENDPOINT + "/how-to";
     private final static String INSTRUCTIONS_DETAILS_ENDPOINT = INSTRUCTIONS_LIST_ENDPOINT + "/{number}";
+    private final static String SUMMARIES_KEY = "summaries";
+
+    public DrillApiService(BackendClient backendClient, CatalogCache catalogCache,
+            CatalogNameIndex catalogNameIndex, CatalogChangeDetector catalogChangeDetector) {
+        this.backendClient = backendClient;
+        this.catalogCache = catalogCache;
+        this.catalogNameIndex = catalogNameIndex;
+        this.catalogChangeDetector = catalogChangeDetector;
+        this.drillReader = backendClient.readerFor(DrillResponseDTO.class);
+        this.instructionsListReader = backendClient.readerFor(String[].class);
+        this.getAllSummariesExtractor = backendClient.<DrillSummaryDTO[]>extractor()
+            .onBody(HttpStatus.OK, backendClient.readerFor(DrillSummaryDTO[].class))
+            .onValue(HttpStatus.NO_CONTENT, () -> new DrillSummaryDTO[] { /* Empty */ })
+            .build();
+        this.createExtractor = backendClient.<DrillResponseDTO>extractor()
+            .onBody(HttpStatus.CREATED, drillReader)
+            .onErrorBody(HttpStatus.BAD_REQUEST)
+            .build();
+        // The backend answers a bad instruction number with NOT_FOUND, report it as the user's mistake
+        this.instructionDetailsExtractor = backendClient.<InstructionsDTO>extractor()
+            .onBody(HttpStatus.OK, backendClient.readerFor(InstructionsDTO.class))
+            .onErrorBody(HttpStatus.NOT_FOUND, HttpStatus.BAD_REQUEST)
+            .build();
+    }
 
     /**
      * Find a Drill by its ID.
@@ -77,46 +102,41 @@ public class DrillApiService {
      */
     @NonNull
     public BackendResponse<DrillResponseDTO> get(@NonNull Long id) {
-        HttpStatusCode retStatus = null;
-        DrillResponseDTO retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<DrillResponseDTO> response =
-            restTemplate.getForEntity(
-                API_ENDPOINT + ID_ENDPOINT,
-                DrillResponseDTO.class,
-                id
-            );
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case OK:
-                retStatus = HttpStatus.OK;
-                retDto = response.getBody();
-                retError = null;
-                break;
+        return catalogCache.get(Region.DRILL, CatalogCache.idKey(id), () -> fetch(id));
+    }
 
-            case NOT_FOUND:
-                retStatus = HttpStatus.NOT_FOUND;
-                retDto = null;
-                retError = new ErrorMessageDTO(
-                    Constants.NOT_FOUND_ERROR,
-                    "Drill " + id + " does not exist."
-                );
-                break;
+    /**
+     * Find a Drill by its ID as the backend has it right now, bypassing the cache. Use this
+     * rather than {@link #get(Long)} for anything that gets modified and sent back, a cached copy
+     * may predate another instance's update, which would then be lost.
+     *
+     * @param id ID of the Drill to find.
+     * @return BackendResponse containing the found Drill.
+     */
+    @NonNull
+    public BackendResponse<DrillResponseDTO> getCurrent(@NonNull Long id) {
+        return backendClient.getLive("drill.getCurrent", API_ENDPOINT + ID_ENDPOINT, idExtractor(id), id);
+    }
 
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
-        }
+    @NonNull
+    private BackendResponse<DrillResponseDTO> fetch(@NonNull Long id) {
+        return backendClient.get("drill.get", API_ENDPOINT + ID_ENDPOINT, idExtractor(id), id);
+    }
 
-        return new BackendResponse<DrillResponseDTO>(retStatus, retDto, retError);
+    @NonNull
+    private BackendResponseExtractor<DrillResponseDTO> idExtractor(@NonNull Long id) {
+        return backendClient.<DrillResponseDTO>extractor()
+            .onBody(HttpStatus.OK, drillReader)
+            .onError(HttpStatus.NOT_FOUND, () -> new ErrorMessageDTO(
+                Constants.NOT_FOUND_ERROR,
+                "Drill " + id + " does not exist."
+            ))
+            .build();
     }
 
     /**
-     * Update a Drill.
+     * Update a Drill. Nothing is sent when the update matches the Drill as the backend currently
+     * has it, see {@link CatalogChangeDetector}.
      *
      * @param id ID of the Drill to update.
      * @param drill Updated Drill.
@@ -124,65 +144,51 @@ public class DrillApiService {
      */
     @NonNull
     public BackendResponse<DrillResponseDTO> update(@NonNull Long id, @NonNull DrillUpdateDTO drill) {
-        HttpStatusCode retStatus = null;
-        DrillResponseDTO retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<String> response =
-            restTemplate.exchange(
-                API_ENDPOINT + ID_ENDPOINT,
-                HttpMethod.PUT,
-                new HttpEntity<DrillUpdateDTO>(drill),
-                String.class,
-                id
-            );
+        if (catalogChangeDetector.isEnabled()) {
+            var current = getCurrent(id);
+            if (HttpStatus.OK.isSameCodeAs(current.getStatus())
+                    && catalogChangeDetector.isUnchanged("drill", id,
+                    drill.changedFieldsFrom(new DrillUpdateDTO(current.getResponse())))) {
+                // What is cached may still be from before another instance's update
+                invalidateDrills(List.of(id));
+                catalogCache.invalidate(Region.DRILL, SUMMARIES_KEY);
+                return current;
+            }
+        }
 
-        switch((HttpStatus) response.getStatusCode()) {
-            case OK:
-                retStatus = HttpStatus.OK;
-                // Extract returned object
-                try {
-                    retDto = objectMapper.readValue(response.getBody(), DrillResponseDTO.class);
-                } catch (JsonProcessingException e) {
-                    log.error(e.toString());
-                    retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                    retDto = null;
-                    retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                }
-                retError = null;
-                break;
+        // Related Drills may be updated on both sides by the backend
+        List<Long> affectedDrills = new ArrayList<>();
+        affectedDrills.add(id);
+        if (null != drill.getRelatedDrills()) {
+            affectedDrills.addAll(drill.getRelatedDrills());
+        }
 
-            case BAD_REQUEST:
-                retStatus = HttpStatus.BAD_REQUEST;
-                retDto = null;
-                try {
-                    retError = objectMapper.readValue(response.getBody(), ErrorMessageDTO.class);
-                } catch (JsonProcessingException e) {
-                    log.error(e.toString());
-                    retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                    retDto = null;
-                    retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                }
-                break;
+        try {
+            return sendUpdate(id, drill);
+        } finally {
+            invalidateDrills(affectedDrills);
+            // The name may have changed
+            catalogCache.invalidate(Region.DRILL, SUMMARIES_KEY);
+        }
+    }
 
-            case NOT_FOUND:
-                retStatus = HttpStatus.NOT_FOUND;
-                retDto = null;
-                retError = new ErrorMessageDTO(
+    @NonNull
+    private BackendResponse<DrillResponseDTO> sendUpdate(@NonNull Long id, @NonNull DrillUpdateDTO drill) {
+        return backendClient.exchange(
+            "drill.update",
+            HttpMethod.PUT,
+            API_ENDPOINT + ID_ENDPOINT,
+            drill,
+            backendClient.<DrillResponseDTO>extractor()
+                .onBody(HttpStatus.OK, drillReader)
+                .onErrorBody(HttpStatus.BAD_REQUEST)
+                .onError(HttpStatus.NOT_FOUND, () -> new ErrorMessageDTO(
                     Constants.NOT_FOUND_ERROR,
                     "Drill " + id + " does not exist."
-                );
-                break;
-
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
-        }
-
-        return new BackendResponse<DrillResponseDTO>(retStatus, retDto, retError);
+                ))
+                .build(),
+            id
+        );
     }
 
     /**
@@ -194,57 +200,30 @@ public class DrillApiService {
      */
     @NonNull
     public BackendResponse<String> updateCategories(@NonNull Long categoryId, @NonNull List<Long> drillIds) {
-        HttpStatusCode retStatus = null;
-        String retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<String> response =
-            restTemplate.exchange(
-                API_ENDPOINT + ADD_CATEGORY_ENDPOINT,
-                HttpMethod.PATCH,
-                new HttpEntity<List<Long>>(drillIds),
-                String.class,
-                categoryId
-            );
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case NO_CONTENT:
-                retStatus = HttpStatus.NO_CONTENT;
-                retDto = "Successfully added Category to Drills.";
-                retError = null;
-                break;
-
-            case BAD_REQUEST:
-                retStatus = HttpStatus.BAD_REQUEST;
-                retDto = null;
-                try {
-                    retError = objectMapper.readValue(response.getBody(), ErrorMessageDTO.class);
-                } catch (JsonProcessingException e) {
-                    log.error(e.toString());
-                    retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                    retDto = null;
-                    retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                }
-                break;
+        try {
+            return sendUpdateCategories(categoryId, drillIds);
+        } finally {
+            invalidateDrills(drillIds);
+        }
+    }
 
-            case NOT_FOUND:
-                retStatus = HttpStatus.NOT_FOUND;
-                retDto = null;
-                retError = new ErrorMessageDTO(
+    @NonNull
+    private BackendResponse<String> sendUpdateCategories(@NonNull Long categoryId, @NonNull List<Long> drillIds) {
+        return backendClient.exchange(
+            "drill.updateCategories",
+            HttpMethod.PATCH,
+            API_ENDPOINT + ADD_CATEGORY_ENDPOINT,
+            drillIds,
+            backendClient.<String>extractor()
+                .onValue(HttpStatus.NO_CONTENT, () -> "Successfully added Category to Drills.")
+                .onErrorBody(HttpStatus.BAD_REQUEST)
+                .onError(HttpStatus.NOT_FOUND, () -> new ErrorMessageDTO(
                     Constants.NOT_FOUND_ERROR,
                     "Category " + categoryId + " does not exist."
-                );
-                break;
-
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
-        }
-
-        return new BackendResponse<String>(retStatus, retDto, retError);
+                ))
+                .build(),
+            categoryId
+        );
     }
 
     /**
@@ -256,57 +235,30 @@ public class DrillApiService {
      */
     @NonNull
     public BackendResponse<String> updateSubCategories(@NonNull Long subCategoryId, @NonNull List<Long> drillIds) {
-        HttpStatusCode retStatus = null;
-        String retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<String> response =
-            restTemplate.exchange(
-                API_ENDPOINT + ADD_SUB_CATEGORY_ENDPOINT,
-                HttpMethod.PATCH,
-                new HttpEntity<List<Long>>(drillIds),
-                String.class,
-                subCategoryId
-            );
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case NO_CONTENT:
-                retStatus = HttpStatus.NO_CONTENT;
-                retDto = "Successfully added Sub-Category to Drills.";
-                retError = null;
-                break;
-
-            case BAD_REQUEST:
-                retStatus = HttpStatus.BAD_REQUEST;
-                retDto = null;
-                try {
-                    retError = objectMapper.readValue(response.getBody(), ErrorMessageDTO.class);
-                } catch (JsonProcessingException e) {
-                    log.error(e.toString());
-                    retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                    retDto = null;
-                    retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                }
-                break;
+        try {
+            return sendUpdateSubCategories(subCategoryId, drillIds);
+        } finally {
+            invalidateDrills(drillIds);
+        }
+    }
 
-            case NOT_FOUND:
-                retStatus = HttpStatus.NOT_FOUND;
-                retDto = null;
-                retError = new ErrorMessageDTO(
+    @NonNull
+    private BackendResponse<String> sendUpdateSubCategories(@NonNull Long subCategoryId, @NonNull List<Long> drillIds) {
+        return backendClient.exchange(
+            "drill.updateSubCategories",
+            HttpMethod.PATCH,
+            API_ENDPOINT + ADD_SUB_CATEGORY_ENDPOINT,
+            drillIds,
+            backendClient.<String>extractor()
+                .onValue(HttpStatus.NO_CONTENT, () -> "Successfully added Sub-Category to Drills.")
+                .onErrorBody(HttpStatus.BAD_REQUEST)
+                .onError(HttpStatus.NOT_FOUND, () -> new ErrorMessageDTO(
                     Constants.NOT_FOUND_ERROR,
                     "Sub-Category " + subCategoryId + " does not exist."
-                );
-                break;
-
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
-        }
-
-        return new BackendResponse<String>(retStatus, retDto, retError);
+                ))
+                .build(),
+            subCategoryId
+        );
     }
 
     /**
@@ -315,45 +267,50 @@ public class DrillApiService {
      * @param id ID of the Drill to delete.
      */
     public void delete(@NonNull Long id) {
-        restTemplate.delete(API_ENDPOINT + ID_ENDPOINT, id);
+        try {
+            backendClient.delete("drill.delete", API_ENDPOINT + ID_ENDPOINT, id);
+        } finally {
+            invalidateDrills(List.of(id));
+            catalogCache.invalidate(Region.DRILL, SUMMARIES_KEY);
+        }
     }
 
     /**
-     * Get all Drills from the database.
+     * Get the ID and name of all Drills from the database.
      *
-     * @return BackendResponse containing a list of Drills.
+     * @return BackendResponse containing a list of Drill summaries.
      */
     @NonNull
-    public BackendResponse<DrillResponseDTO[]> getAll() {
-        HttpStatusCode retStatus = null;
-        DrillResponseDTO[] retDto = null;
-        ErrorMessageDTO retError = null;
-         ResponseEntity<DrillResponseDTO[]> response =
-            restTemplate.getForEntity(API_ENDPOINT, DrillResponseDTO[].class);
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case OK:
-                retStatus = HttpStatus.OK;
-                retDto = response.getBody();
-                retError = null;
-                break;
+    public BackendResponse<DrillSummaryDTO[]> getAllSummaries() {
+        return catalogCache.getRefreshed(Region.DRILL, SUMMARIES_KEY, this::fetchAllSummaries);
+    }
 
-            case NO_CONTENT:
-                retStatus = HttpStatus.NO_CONTENT;
-                retDto = new DrillResponseDTO[] { /* Empty */ };
-                retError = null;
-                break;
+    @NonNull
+    private BackendResponse<DrillSummaryDTO[]> fetchAllSummaries() {
+        return backendClient.get("drill.getAllSummaries", API_ENDPOINT, getAllSummariesExtractor);
+    }
 
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
+    /**
+     * Find Drills whose name starts with the prefix (case insensitive). Served from the
+     * {@link CatalogNameIndex}, which is only resynced when {@link #getAllSummaries()} had to reload.
+     *
+     * @param prefix Start of the Drill name.
+     * @return BackendResponse containing the matches, in alphabetical order.
+     */
+    @NonNull
+    public BackendResponse<List<CatalogNameIndex.Match>> search(@NonNull String prefix) {
+        var response = getAllSummaries();
+        if (!response.hasError()) {
+            catalogNameIndex.sync(Region.DRILL, response.getResponse(),
+                DrillSummaryDTO::getId, DrillSummaryDTO::getName);
+        } else if (!catalogNameIndex.isSynced(Region.DRILL)) {
+            return new BackendResponse<List<CatalogNameIndex.Match>>(
+                response.getStatus(), null, response.getError());
         }
+        // Otherwise the backend is having trouble, the last known names are better than nothing
 
-        return new BackendResponse<DrillResponseDTO[]>(retStatus, retDto, retError);
+        return new BackendResponse<List<CatalogNameIndex.Match>>(HttpStatus.OK,
+            catalogNameIndex.search(Region.DRILL, prefix, Constants.SEARCH_RESULT_LIMIT), null);
     }
 
     /**
@@ -364,94 +321,43 @@ public class DrillApiService {
      */
     @NonNull
     public BackendResponse<DrillResponseDTO> create(@NonNull DrillCreateDTO drill) {
-        HttpStatusCode retStatus = null;
-        DrillResponseDTO retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<String> response =
-            restTemplate.postForEntity(
-                API_ENDPOINT,
-                drill,
-                String.class
-            );
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case CREATED:
-                retStatus = HttpStatus.CREATED;
-                // Extract returned object
-                try {
-                    retDto = objectMapper.readValue(response.getBody(), DrillResponseDTO.class);
-                } catch (JsonProcessingException e) {
-                    log.error(e.toString());
-                    retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                    retDto = null;
-                    retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                }
-                retError = null;
-                break;
-
-            case BAD_REQUEST:
-                retStatus = HttpStatus.BAD_REQUEST;
-                retDto = null;
-                try {
-                    retError = objectMapper.readValue(response.getBody(), ErrorMessageDTO.class);
-                } catch (JsonProcessingException e) {
-                    log.error(e.toString());
-                    retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                    retDto = null;
-                    retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                }
-                break;
-
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
+        try {
+            return sendCreate(drill);
+        } finally {
+            catalogCache.invalidate(Region.DRILL, SUMMARIES_KEY);
         }
+    }
 
-        return new BackendResponse<DrillResponseDTO>(retStatus, retDto, retError);
+    @NonNull
+    private BackendResponse<DrillResponseDTO> sendCreate(@NonNull DrillCreateDTO drill) {
+        return backendClient.exchange("drill.create", HttpMethod.POST, API_ENDPOINT, drill, createExtractor);
     }
 
+    /**
+     * Find a Drill by its name (case insensitive).
+     *
+     * @param name Name of the Drill to find.
+     * @return BackendResponse containing the found Drill.
+     */
     @NonNull
     public BackendResponse<DrillResponseDTO> get(@NonNull String name) {
-        HttpStatusCode retStatus = null;
-        DrillResponseDTO retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<DrillResponseDTO> response =
-            restTemplate.getForEntity(
-                API_ENDPOINT + NAME_ENDPOINT,
-                DrillResponseDTO.class,
-                Utility.convertToUri(name)
-            );
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case OK:
-                retStatus = HttpStatus.OK;
-                retDto = response.getBody();
-                retError = null;
-                break;
+        return catalogCache.get(Region.DRILL, CatalogCache.nameKey(name), () -> fetch(name));
+    }
 
-            case NOT_FOUND:
-                retStatus = HttpStatus.NOT_FOUND;
-                retDto = null;
-                retError = new ErrorMessageDTO(
+    @NonNull
+    private BackendResponse<DrillResponseDTO> fetch(@NonNull String name) {
+        return backendClient.get(
+            "drill.getByName",
+            API_ENDPOINT + NAME_ENDPOINT,
+            backendClient.<DrillResponseDTO>extractor()
+                .onBody(HttpStatus.OK, drillReader)
+                .onError(HttpStatus.NOT_FOUND, () -> new ErrorMessageDTO(
                     Constants.NOT_FOUND_ERROR,
                     "Drill \"" + name + "\" does not exist."
-                );
-                break;
-
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
-        }
-
-        return new BackendResponse<DrillResponseDTO>(retStatus, retDto, retError);
+                ))
+                .build(),
+            Utility.convertToUri(name)
+        );
     }
 
     /**
@@ -462,48 +368,19 @@ public class DrillApiService {
      */
     @NonNull
     public BackendResponse<String[]> getAllInstructions(@NonNull Long drillId) {
-        HttpStatusCode retStatus = null;
-        String[] retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<String[]> response =
-            restTemplate.getForEntity(
-                API_ENDPOINT + INSTRUCTIONS_LIST_ENDPOINT,
-                String[].class,
-                drillId
-            );
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case OK:
-                retStatus = HttpStatus.OK;
-                retDto = response.getBody();
-                retError = null;
-                break;
-
-            case NO_CONTENT:
-                retStatus = HttpStatus.NO_CONTENT;
-                retDto = new String[] { /* Empty */ };
-                retError = null;
-                break;
-
-            case NOT_FOUND:
-                retStatus = HttpStatus.NOT_FOUND;
-                retDto = null;
-                retError = new ErrorMessageDTO(
+        return backendClient.get(
+            "drill.getAllInstructions",
+            API_ENDPOINT + INSTRUCTIONS_LIST_ENDPOINT,
+            backendClient.<String[]>extractor()
+                .onBody(HttpStatus.OK, instructionsListReader)
+                .onValue(HttpStatus.NO_CONTENT, () -> new String[] { /* Empty */ })
+                .onError(HttpStatus.NOT_FOUND, () -> new ErrorMessageDTO(
                     Constants.NOT_FOUND_ERROR,
                     "Drill " + drillId + " does not exist."
-                );
-                break;
-
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
-        }
-
-        return new BackendResponse<String[]>(retStatus, retDto, retError);
+                ))
+                .build(),
+            drillId
+        );
     }
 
     /**
@@ -517,54 +394,24 @@ public class DrillApiService {
     @NonNull
     public BackendResponse<InstructionsDTO> getInstructionDetails(
                 @NonNull Long drillId, @NonNull Long number) {
-        HttpStatusCode retStatus = null;
-        InstructionsDTO retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<String> response =
-            restTemplate.getForEntity(
-                API_ENDPOINT + INSTRUCTIONS_DETAILS_ENDPOINT,
-                String.class,
-                drillId,
-                number
-            );
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case OK:
-                retStatus = HttpStatus.OK;
-                // Extract returned object
-                try {
-                    retDto = objectMapper.readValue(response.getBody(), InstructionsDTO.class);
-                } catch (JsonProcessingException e) {
-                    log.error(e.toString());
-                    retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                    retDto = null;
-                    retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                }
-                retError = null;
-                break;
-
-            case NOT_FOUND:
-                retStatus = HttpStatus.BAD_REQUEST;
-                retDto = null;
-                try {
-                    retError = objectMapper.readValue(response.getBody(), ErrorMessageDTO.class);
-                } catch (JsonProcessingException e) {
-                    log.error(e.toString());
-                    retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                    retDto = null;
-                    retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                }
-                break;
-
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
-        }
+        return backendClient.get(
+            "drill.getInstructionDetails",
+            API_ENDPOINT + INSTRUCTIONS_DETAILS_ENDPOINT,
+            instructionDetailsExtractor,
+            drillId,
+            number
+        );
+    }
 
-        return new BackendResponse<InstructionsDTO>(retStatus, retDto, retError);
+    /**
+     * Invalidate every cached entry that contains, or is related to, one of the given Drills.
+     *
+     * @param drillIds IDs of the Drills that were written.
+     */
+    private void invalidateDrills(@NonNull Collection<Long> drillIds) {
+        catalogCache.invalidateIf(Region.DRILL, body -> CatalogCache.drillsIn(body)
+            .anyMatch(drill -> drillIds.contains(drill.getId())
+                || (null != drill.getRelatedDrills() && drill.getRelatedDrills().stream()
+                    .anyMatch(relatedDrill -> drillIds.contains(relatedDrill.getId())))));
     }
 }
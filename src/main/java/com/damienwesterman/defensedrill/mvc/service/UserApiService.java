@@ -26,39 +26,49 @@
 
 package com.damienwesterman.defensedrill.mvc.service;
 
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.HttpStatusCode;
-import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import com.damienwesterman.defensedrill.mvc.util.Constants;
 import com.damienwesterman.defensedrill.mvc.web.dto.BackendResponse;
 import com.damienwesterman.defensedrill.mvc.web.dto.ErrorMessageDTO;
 import com.damienwesterman.defensedrill.mvc.web.dto.UserFormDTO;
 import com.damienwesterman.defensedrill.mvc.web.dto.UserInfoDTO;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 /**
  * Service to interact with the User Rest API backend.
  */
 @Service
-@RequiredArgsConstructor
-@Slf4j
 public class UserApiService {
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    private final BackendClient backendClient;
+    private final ObjectReader userReader;
+    private final BackendResponseExtractor<UserInfoDTO[]> getAllExtractor;
+    private final BackendResponseExtractor<UserInfoDTO> createExtractor;
+    private final BackendResponseExtractor<String> deleteExtractor;
 
     private final static String API_ENDPOINT = Constants.SECURITY_API_BASE_ADDRESS;
     private final static String ID_ENDPOINT = "/id/{id}";
 
+    public UserApiService(BackendClient backendClient) {
+        this.backendClient = backendClient;
+        this.userReader = backendClient.readerFor(UserInfoDTO.class);
+        this.getAllExtractor = backendClient.<UserInfoDTO[]>extractor()
+            .onBody(HttpStatus.OK, backendClient.readerFor(UserInfoDTO[].class))
+            .onValue(HttpStatus.NO_CONTENT, () -> new UserInfoDTO[] { /* Empty */ })
+            .build();
+        this.createExtractor = backendClient.<UserInfoDTO>extractor()
+            .onBody(HttpStatus.CREATED, userReader)
+            .onErrorBody(HttpStatus.BAD_REQUEST)
+            .build();
+        this.deleteExtractor = backendClient.<String>extractor()
+            .onValue(HttpStatus.NO_CONTENT, () -> "") // There should be no return body
+            .onErrorBody(HttpStatus.BAD_REQUEST)
+            .build();
+    }
+
     /**
      * Retrieve all Users.
      *
@@ -66,35 +76,7 @@ public class UserApiService {
      */
     @NonNull
     public BackendResponse<UserInfoDTO[]> getAll() {
-        HttpStatusCode retStatus = null;
-        UserInfoDTO[] retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<UserInfoDTO[]> response =
-            restTemplate.getForEntity(API_ENDPOINT, UserInfoDTO[].class);
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case OK:
-                retStatus = HttpStatus.OK;
-                retDto = response.getBody();
-                retError = null;
-                break;
-
-            case NO_CONTENT:
-                retStatus = HttpStatus.NO_CONTENT;
-                retDto = new UserInfoDTO[] { /* Empty */ };
-                retError = null;
-                break;
-
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
-        }
-
-        return new BackendResponse<UserInfoDTO[]>(retStatus, retDto, retError);
+        return backendClient.get("user.getAll", API_ENDPOINT, getAllExtractor);
     }
 
     /**
@@ -105,54 +87,7 @@ public class UserApiService {
      */
     @NonNull
     public BackendResponse<UserInfoDTO> create(@NonNull UserFormDTO user) {
-        HttpStatusCode retStatus = null;
-        UserInfoDTO retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<String> response =
-            restTemplate.postForEntity(
-                API_ENDPOINT,
-                user,
-                String.class
-            );
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case CREATED:
-                retStatus = HttpStatus.CREATED;
-                // Extract returned object
-                try {
-                    retDto = objectMapper.readValue(response.getBody(), UserInfoDTO.class);
-                } catch (JsonProcessingException e) {
-                    log.error(e.toString());
-                    retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                    retDto = null;
-                    retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                }
-                retError = null;
-                break;
-
-            case BAD_REQUEST:
-                retStatus = HttpStatus.BAD_REQUEST;
-                retDto = null;
-                try {
-                    retError = objectMapper.readValue(response.getBody(), ErrorMessageDTO.class);
-                } catch (JsonProcessingException e) {
-                    log.error(e.toString());
-                    retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                    retDto = null;
-                    retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                }
-                break;
-
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
-        }
-
-        return new BackendResponse<UserInfoDTO>(retStatus, retDto, retError);
+        return backendClient.exchange("user.create", HttpMethod.POST, API_ENDPOINT, user, createExtractor);
     }
 
     /**
@@ -163,42 +98,15 @@ public class UserApiService {
      */
     @NonNull
     public BackendResponse<UserInfoDTO> get(@NonNull Long id) {
-        HttpStatusCode retStatus = null;
-        UserInfoDTO retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<UserInfoDTO> response =
-            restTemplate.getForEntity(
-                API_ENDPOINT + ID_ENDPOINT,
-                UserInfoDTO.class,
-                id
-            );
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case OK:
-                retStatus = HttpStatus.OK;
-                retDto = response.getBody();
-                retError = null;
-                break;
-
-            case NOT_FOUND:
-                retStatus = HttpStatus.NOT_FOUND;
-                retDto = null;
-                retError = new ErrorMessageDTO(
-                    Constants.NOT_FOUND_ERROR,
-                    "User " + id + " does not exist."
-                );
-                break;
-
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
-        }
-
-        return new BackendResponse<UserInfoDTO>(retStatus, retDto, retError);
+        return backendClient.get(
+            "user.get",
+            API_ENDPOINT + ID_ENDPOINT,
+            backendClient.<UserInfoDTO>extractor()
+                .onBody(HttpStatus.OK, userReader)
+                .onError(HttpStatus.NOT_FOUND, () -> userNotFound(id))
+                .build(),
+            id
+        );
     }
 
     /**
@@ -210,64 +118,18 @@ public class UserApiService {
      */
     @NonNull
     public BackendResponse<UserInfoDTO> update(@NonNull Long id, @NonNull UserFormDTO user) {
-        HttpStatusCode retStatus = null;
-        UserInfoDTO retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<String> response =
-            restTemplate.postForEntity(
-                API_ENDPOINT + ID_ENDPOINT,
-                user,
-                String.class,
-                id
-            );
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case OK:
-                retStatus = HttpStatus.OK;
-                // Extract returned object
-                try {
-                    retDto = objectMapper.readValue(response.getBody(), UserInfoDTO.class);
-                } catch (JsonProcessingException e) {
-                    log.error(e.toString());
-                    retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                    retDto = null;
-                    retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                }
-                retError = null;
-                break;
-
-            case BAD_REQUEST:
-                retStatus = HttpStatus.BAD_REQUEST;
-                retDto = null;
-                try {
-                    retError = objectMapper.readValue(response.getBody(), ErrorMessageDTO.class);
-                } catch (JsonProcessingException e) {
-                    log.error(e.toString());
-                    retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                    retDto = null;
-                    retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                }
-                break;
-
-            case NOT_FOUND:
-                retStatus = HttpStatus.NOT_FOUND;
-                retDto = null;
-                retError = new ErrorMessageDTO(
-                    Constants.NOT_FOUND_ERROR,
-                    "User " + id + " does not exist."
-                );
-                break;
-
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
-        }
-
-        return new BackendResponse<UserInfoDTO>(retStatus, retDto, retError);
+        return backendClient.exchange(
+            "user.update",
+            HttpMethod.POST,
+            API_ENDPOINT + ID_ENDPOINT,
+            user,
+            backendClient.<UserInfoDTO>extractor()
+                .onBody(HttpStatus.OK, userReader)
+                .onErrorBody(HttpStatus.BAD_REQUEST)
+                .onError(HttpStatus.NOT_FOUND, () -> userNotFound(id))
+                .build(),
+            id
+        );
     }
 
     /**
@@ -276,47 +138,21 @@ public class UserApiService {
      * @param id User's ID.
      */
     public BackendResponse<String> delete(@NonNull Long id) {
-        HttpStatusCode retStatus = null;
-        String retDto = null;
-        ErrorMessageDTO retError = null;
-        ResponseEntity<String> response =
-            restTemplate.exchange(
-                API_ENDPOINT + ID_ENDPOINT,
-                HttpMethod.DELETE,
-                new HttpEntity<String>(""),
-                String.class,
-                id
-            );
-
-        switch((HttpStatus) response.getStatusCode()) {
-            case NO_CONTENT:
-                retStatus = HttpStatus.NO_CONTENT;
-                retDto = ""; // There should be no return body
-                retError = null;
-                break;
-
-            case BAD_REQUEST:
-                retStatus = HttpStatus.BAD_REQUEST;
-                retDto = null;
-                try {
-                    retError = objectMapper.readValue(response.getBody(), ErrorMessageDTO.class);
-                } catch (JsonProcessingException e) {
-                    log.error(e.toString());
-                    retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                    retDto = null;
-                    retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                }
-                break;
-
-            case INTERNAL_SERVER_ERROR:
-                // Fallthrough intentional
-            default:
-                retStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-                retDto = null;
-                retError = Constants.GENERIC_INTERNAL_ERROR_DTO;
-                break;
-        }
+        return backendClient.exchange(
+            "user.delete",
+            HttpMethod.DELETE,
+            API_ENDPOINT + ID_ENDPOINT,
+            "",
+            deleteExtractor,
+            id
+        );
+    }
 
-        return new BackendResponse<String>(retStatus, retDto, retError);
+    @NonNull
+    private static ErrorMessageDTO userNotFound(@NonNull Long id) {
+        return new ErrorMessageDTO(
+            Constants.NOT_FOUND_ERROR,
+            "User " + id + " does not exist."
+        );
     }
 }
@@ -50,11 +50,23 @@ public class Constants {
         Constants.GENERIC_INTERNAL_ERROR,
         Constants.GENERIC_INTERNAL_ERROR_MESSAGE
     );
+    public final static ErrorMessageDTO SERVICE_UNAVAILABLE_ERROR_DTO = new ErrorMessageDTO(
+        Constants.SERVICE_UNAVAILABLE_ERROR,
+        Constants.GENERIC_INTERNAL_ERROR_MESSAGE
+    );
 
     // User feedback messages
     public final static String GENERIC_INTERNAL_ERROR = "Internal Error";
     public final static String GENERIC_INTERNAL_ERROR_MESSAGE = "Please try again later.";
     public final static String NOT_FOUND_ERROR = "Not Found";
+    public final static String SERVICE_UNAVAILABLE_ERROR = "Service Unavailable";
+
+    // Number of items rendered at a time in a view_window_list, the rest load on scroll
+    public final static int LIST_PAGE_SIZE = 50;
+    // Number of matches returned by a typeahead search
+    public final static int SEARCH_RESULT_LIMIT = 20;
+    // Number of items of a streamed list (drill form checkboxes, ...) rendered between flushes
+    public final static int STREAM_CHUNK_SIZE = 100;
 
     public static String SERVER_IP_ADDRESS;
 
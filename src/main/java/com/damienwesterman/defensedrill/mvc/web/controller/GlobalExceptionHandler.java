@@ -30,6 +30,8 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.client.ResourceAccessException;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 
@@ -42,4 +44,12 @@ public class GlobalExceptionHandler {
         response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
         response.setHeader("HX-Redirect", "/error/500.html");
     }
+
+    @ExceptionHandler({CallNotPermittedException.class, BulkheadFullException.class})
+    public void handleRejectedBackendCall(Exception e, HttpServletResponse response) {
+        // Expected while a backend is down, no need for the stack trace
+        log.warn("Backend unavailable: {}", e.getMessage());
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("HX-Redirect", "/error/503.html");
+    }
 }
@@ -26,10 +26,9 @@
 
 package com.damienwesterman.defensedrill.mvc.web.controller;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.function.BiFunction;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -37,7 +36,10 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import com.damienwesterman.defensedrill.mvc.config.CatalogFragment;
+import com.damienwesterman.defensedrill.mvc.service.CatalogCache.Region;
 import com.damienwesterman.defensedrill.mvc.service.CategoryApiService;
 import com.damienwesterman.defensedrill.mvc.service.DrillApiService;
 import com.damienwesterman.defensedrill.mvc.web.dto.AbstractCategoryCreateDTO;
@@ -56,7 +58,8 @@ public class HtmxCategoryController {
     private final DrillApiService drillApiService;
 
     @GetMapping("/view")
-    public String viewAllCategories(Model model) {
+    @CatalogFragment(value = Region.CATEGORY, cacheOutput = true)
+    public String viewAllCategories(Model model, @RequestParam(defaultValue = "0") int page) {
         var response = categoryApiService.getAll();
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
@@ -64,36 +67,40 @@ public class HtmxCategoryController {
             model.addAttribute("buttonText", "");
             model.addAttribute("listItems", Map.of());
         } else {
-            List<AbstractCategoryDTO> categories = List.of(response.getResponse());
+            List<AbstractCategoryDTO> categories = Arrays.asList(response.getResponse());
 
             model.addAttribute("windowTitle",
                 "Total Categories: " + categories.size());
             model.addAttribute("buttonText", "Details");
 
-            // Add categories to list
-            BiFunction<String, Long, Map<String, String>> createListItem =
-                (description, categoryId) -> Map.of(
-                    "itemDescription", description,
-                    "htmxEndpoint", "/htmx/category/view/" + categoryId
-                );
-            List<Map<String, String>> listItems = new ArrayList<>(categories.size());
-            for (var category : categories) {
-                listItems.add(
-                    createListItem.apply(category.getName(), category.getId())
-                );
-            }
-            model.addAttribute("listItems", listItems);
+            model.addAttribute("searchEndpoint", "/htmx/category/search");
+            ViewWindowList.addPage(model, categories, page, "/htmx/category/view",
+                AbstractCategoryDTO::getName, category -> "/htmx/category/view/" + category.getId());
         }
 
-        return "layouts/htmx/view_window_list :: viewWindowList";
+        return ViewWindowList.fragment(page);
+    }
+
+    @GetMapping("/search")
+    @CatalogFragment(Region.CATEGORY)
+    public String searchCategories(Model model, @RequestParam(defaultValue = "") String name) {
+        if (name.isBlank()) {
+            // Search was cleared, go back to the full list
+            viewAllCategories(model, 0);
+            return ViewWindowList.itemsFragment();
+        }
+
+        model.addAttribute("buttonText", "Details");
+        return ViewWindowList.addSearchResults(model, categoryApiService.search(name), "/htmx/category/view/");
     }
 
     @GetMapping("/view/{id}")
+    @CatalogFragment(Region.CATEGORY)
     public String viewOneCategory(Model model, @PathVariable Long id) {
         var response = categoryApiService.get(id);
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
-            return viewAllCategories(model);
+            return viewAllCategories(model, 0);
         }
 
         var category = response.getResponse();
@@ -111,12 +118,12 @@ public class HtmxCategoryController {
         model.addAttribute("postEndpoint", "/htmx/category/create");
         model.addAttribute("buttonText", "Create");
 
-        var response = drillApiService.getAll();
+        var response = drillApiService.getAllSummaries();
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
         } else if (0 < response.getResponse().length) {
             model.addAttribute("displayDrillsList", true);
-            model.addAttribute("drillsList", response.getResponse());
+            model.addAttribute("drillsList", StreamedList.of(response.getResponse()));
         }
 
         return "layouts/htmx/abstract_category_form :: abstractCategoryForm";
@@ -151,7 +158,8 @@ public class HtmxCategoryController {
     }
 
     @GetMapping("/modify")
-    public String modifyCategoryList(Model model) {
+    @CatalogFragment(value = Region.CATEGORY, cacheOutput = true)
+    public String modifyCategoryList(Model model, @RequestParam(defaultValue = "0") int page) {
         var response = categoryApiService.getAll();
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
@@ -159,28 +167,17 @@ public class HtmxCategoryController {
             model.addAttribute("buttonText", "");
             model.addAttribute("listItems", Map.of());
         } else {
-            List<AbstractCategoryDTO> categories = List.of(response.getResponse());
+            List<AbstractCategoryDTO> categories = Arrays.asList(response.getResponse());
 
             model.addAttribute("windowTitle",
                 "Choose Category to Modify");
             model.addAttribute("buttonText", "Modify");
 
-            // Add categories to list
-            BiFunction<String, Long, Map<String, String>> createListItem =
-                (description, categoryId) -> Map.of(
-                    "itemDescription", description,
-                    "htmxEndpoint", "/htmx/category/modify/" + categoryId
-                );
-            List<Map<String, String>> listItems = new ArrayList<>(categories.size());
-            for (var category : categories) {
-                listItems.add(
-                    createListItem.apply(category.getName(), category.getId())
-                );
-            }
-            model.addAttribute("listItems", listItems);
+            ViewWindowList.addPage(model, categories, page, "/htmx/category/modify",
+                AbstractCategoryDTO::getName, category -> "/htmx/category/modify/" + category.getId());
         }
 
-        return "layouts/htmx/view_window_list :: viewWindowList";
+        return ViewWindowList.fragment(page);
     }
 
     @GetMapping("/modify/{id}")
@@ -188,7 +185,7 @@ public class HtmxCategoryController {
         var response = categoryApiService.get(id);
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
-            return modifyCategoryList(model);
+            return modifyCategoryList(model, 0);
         }
 
         AbstractCategoryDTO category = response.getResponse();
@@ -209,7 +206,7 @@ public class HtmxCategoryController {
         var response = categoryApiService.update(category);
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
-            return modifyCategoryList(model);
+            return modifyCategoryList(model, 0);
         }
 
         model.addAttribute("successMessage", "Category Modified Successfully!");
@@ -224,7 +221,8 @@ public class HtmxCategoryController {
     }
 
     @GetMapping("/delete")
-    public String deleteCategoryList(Model model) {
+    @CatalogFragment(value = Region.CATEGORY, cacheOutput = true)
+    public String deleteCategoryList(Model model, @RequestParam(defaultValue = "0") int page) {
         var response = categoryApiService.getAll();
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
@@ -232,28 +230,17 @@ public class HtmxCategoryController {
             model.addAttribute("buttonText", "");
             model.addAttribute("listItems", Map.of());
         } else {
-            List<AbstractCategoryDTO> categories = List.of(response.getResponse());
+            List<AbstractCategoryDTO> categories = Arrays.asList(response.getResponse());
 
             model.addAttribute("windowTitle",
                 "Choose Category to Delete");
             model.addAttribute("buttonText", "Delete");
 
-            // Add categories to list
-            BiFunction<String, Long, Map<String, String>> createListItem =
-                (description, categoryId) -> Map.of(
-                    "itemDescription", description,
-                    "htmxEndpoint", "/htmx/category/confirm_delete/" + categoryId
-                );
-            List<Map<String, String>> listItems = new ArrayList<>(categories.size());
-            for (var category : categories) {
-                listItems.add(
-                    createListItem.apply(category.getName(), category.getId())
-                );
-            }
-            model.addAttribute("listItems", listItems);
+            ViewWindowList.addPage(model, categories, page, "/htmx/category/delete",
+                AbstractCategoryDTO::getName, category -> "/htmx/category/confirm_delete/" + category.getId());
         }
 
-        return "layouts/htmx/view_window_list :: viewWindowList";
+        return ViewWindowList.fragment(page);
     }
 
     @GetMapping("/confirm_delete/{id}")
@@ -261,7 +248,7 @@ public class HtmxCategoryController {
         var response = categoryApiService.get(id);
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
-            return deleteCategoryList(model);
+            return deleteCategoryList(model, 0);
         }
 
         AbstractCategoryDTO category = response.getResponse();
@@ -279,6 +266,6 @@ public class HtmxCategoryController {
     public String deleteOneCategory(Model model, @PathVariable Long id) {
         categoryApiService.delete(id);
         model.addAttribute("successMessage", "Category Successfully Deleted!");
-        return deleteCategoryList(model);
+        return deleteCategoryList(model, 0);
     }
 }
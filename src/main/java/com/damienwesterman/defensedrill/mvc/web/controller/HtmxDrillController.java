@@ -27,10 +27,10 @@
 package com.damienwesterman.defensedrill.mvc.web.controller;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Controller;
@@ -43,6 +43,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import com.damienwesterman.defensedrill.mvc.config.CatalogFragment;
+import com.damienwesterman.defensedrill.mvc.service.BackendFanOut;
+import com.damienwesterman.defensedrill.mvc.service.CatalogCache.Region;
 import com.damienwesterman.defensedrill.mvc.service.CategoryApiService;
 import com.damienwesterman.defensedrill.mvc.service.DrillApiService;
 import com.damienwesterman.defensedrill.mvc.service.SubCategoryApiService;
@@ -51,6 +54,7 @@ import com.damienwesterman.defensedrill.mvc.web.dto.AbstractCategoryDTO;
 import com.damienwesterman.defensedrill.mvc.web.dto.DrillFormDTO;
 import com.damienwesterman.defensedrill.mvc.web.dto.DrillRelatedDTO;
 import com.damienwesterman.defensedrill.mvc.web.dto.DrillResponseDTO;
+import com.damienwesterman.defensedrill.mvc.web.dto.DrillSummaryDTO;
 import com.damienwesterman.defensedrill.mvc.web.dto.DrillUpdateDTO;
 import com.damienwesterman.defensedrill.mvc.web.dto.InstructionsDTO;
 
@@ -66,6 +70,7 @@ public class HtmxDrillController {
     private final DrillApiService drillApiService;
     private final CategoryApiService categoryApiService;
     private final SubCategoryApiService subCategoryApiService;
+    private final BackendFanOut backendFanOut;
 
     /**
      * Used for essentially removing an HTML element view HTMX.
@@ -77,39 +82,44 @@ public class HtmxDrillController {
     }
 
     @GetMapping("/view")
-    public String viewAllDrills(Model model) {
-        var response = drillApiService.getAll();
+    @CatalogFragment(value = Region.DRILL, cacheOutput = true)
+    public String viewAllDrills(Model model, @RequestParam(defaultValue = "0") int page) {
+        var response = drillApiService.getAllSummaries();
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
             model.addAttribute("windowTitle", "Error");
             model.addAttribute("buttonText", "");
             model.addAttribute("listItems", Map.of());
         } else {
-            List<DrillResponseDTO> drills = List.of(response.getResponse());
+            List<DrillSummaryDTO> drills = Arrays.asList(response.getResponse());
 
             model.addAttribute("windowTitle",
                 "Total Drills: " + drills.size());
             model.addAttribute("buttonText", "Details");
 
-            // Add drills to list
-            BiFunction<String, Long, Map<String, String>> createListItem =
-                (description, drillId) -> Map.of(
-                    "itemDescription", description,
-                    "htmxEndpoint", "/htmx/drill/view/" + drillId
-                );
-            List<Map<String, String>> listItems = new ArrayList<>(drills.size());
-            for (var drill : drills) {
-                listItems.add(
-                    createListItem.apply(drill.getName(), drill.getId())
-                );
-            }
-            model.addAttribute("listItems", listItems);
+            model.addAttribute("searchEndpoint", "/htmx/drill/search");
+            ViewWindowList.addPage(model, drills, page, "/htmx/drill/view",
+                DrillSummaryDTO::getName, drill -> "/htmx/drill/view/" + drill.getId());
+        }
+
+        return ViewWindowList.fragment(page);
+    }
+
+    @GetMapping("/search")
+    @CatalogFragment(Region.DRILL)
+    public String searchDrills(Model model, @RequestParam(defaultValue = "") String name) {
+        if (name.isBlank()) {
+            // Search was cleared, go back to the full list
+            viewAllDrills(model, 0);
+            return ViewWindowList.itemsFragment();
         }
 
-        return "layouts/htmx/view_window_list :: viewWindowList";
+        model.addAttribute("buttonText", "Details");
+        return ViewWindowList.addSearchResults(model, drillApiService.search(name), "/htmx/drill/view/");
     }
 
     @GetMapping("/view/{id}")
+    @CatalogFragment(Region.DRILL)
     public String viewOneDrill(Model model, @PathVariable Long id,
             @RequestParam(defaultValue = "/htmx/drill/view") String backEndpoint) {
         var response = drillApiService.get(id);
@@ -146,28 +156,34 @@ public class HtmxDrillController {
         model.addAttribute("checkedSubCategories", Set.of());
         model.addAttribute("checkedRelatedDrills", Set.of());
 
-        var drillListResponse = drillApiService.getAll();
+        // The lists are independent, retrieve them all at once
+        var fanOut = backendFanOut.start();
+        var drillListFuture = fanOut.submit(drillApiService::getAllSummaries);
+        var categoriesListFuture = fanOut.submit(categoryApiService::getAll);
+        var subCategoriesListFuture = fanOut.submit(subCategoryApiService::getAll);
+
+        var drillListResponse = fanOut.await(drillListFuture);
         if (drillListResponse.hasError()) {
             model.addAttribute("errorMessage", drillListResponse.getError().toString());
             model.addAttribute("drillsList", List.of());
         } else if (0 < drillListResponse.getResponse().length) {
-            model.addAttribute("drillsList", List.of(drillListResponse.getResponse()));
+            model.addAttribute("drillsList", StreamedList.of(drillListResponse.getResponse()));
         }
 
-        var categoriesListResponse = categoryApiService.getAll();
+        var categoriesListResponse = fanOut.await(categoriesListFuture);
         if (categoriesListResponse.hasError()) {
             model.addAttribute("errorMessage", categoriesListResponse.getError().toString());
             model.addAttribute("categoriesList", List.of());
         } else if (0 < categoriesListResponse.getResponse().length) {
-            model.addAttribute("categoriesList", List.of(categoriesListResponse.getResponse()));
+            model.addAttribute("categoriesList", StreamedList.of(categoriesListResponse.getResponse()));
         }
 
-        var subCategoriesListResponse = subCategoryApiService.getAll();
+        var subCategoriesListResponse = fanOut.await(subCategoriesListFuture);
         if (subCategoriesListResponse.hasError()) {
             model.addAttribute("errorMessage", subCategoriesListResponse.getError().toString());
             model.addAttribute("subCategoriesList", List.of());
         } else if (0 < subCategoriesListResponse.getResponse().length) {
-            model.addAttribute("subCategoriesList", List.of(subCategoriesListResponse.getResponse()));
+            model.addAttribute("subCategoriesList", StreamedList.of(subCategoriesListResponse.getResponse()));
         }
 
         // If more than one error message occurs, only the last one will be displayed. This is okay
@@ -242,7 +258,7 @@ public class HtmxDrillController {
     @PostMapping("/{drillId}/instructions/create")
     public String createNewInstructions(Model model, @PathVariable Long drillId,
             @ModelAttribute InstructionsDTO instructions, @RequestParam String startingEndpoint) {
-        var drillGetResponse = drillApiService.get(drillId);
+        var drillGetResponse = drillApiService.getCurrent(drillId);
         if (drillGetResponse.hasError()) {
             model.addAttribute("errorMessage", drillGetResponse.getError().toString());
         } else {
@@ -325,7 +341,7 @@ public class HtmxDrillController {
     public String modifyInstructions(Model model, @PathVariable Long drillId, @ModelAttribute InstructionsDTO instructions,
             // We want to use the instructionsDescription so that there are no timing issues with changing index positions
             @RequestParam String originalInstructionsDescription, @RequestParam String startingEndpoint) {
-        var drillGetResponse = drillApiService.get(drillId);
+        var drillGetResponse = drillApiService.getCurrent(drillId);
         if (drillGetResponse.hasError()) {
             model.addAttribute("errorMessage", drillGetResponse.getError().toString());
         } else {
@@ -393,7 +409,7 @@ public class HtmxDrillController {
     public String deleteInstructions(Model model, @PathVariable Long drillId,
             // We want to use the instructionsDescription so that there are no timing issues with changing index positions
             @RequestParam String instructionsDescription, @RequestParam String startingEndpoint) {
-        var drillGetResponse = drillApiService.get(drillId);
+        var drillGetResponse = drillApiService.getCurrent(drillId);
         if (drillGetResponse.hasError()) {
             model.addAttribute("errorMessage", drillGetResponse.getError().toString());
         } else {
@@ -423,44 +439,43 @@ public class HtmxDrillController {
     }
 
     @GetMapping("/modify")
-    public String modifyDrillList(Model model) {
-        var response = drillApiService.getAll();
+    @CatalogFragment(value = Region.DRILL, cacheOutput = true)
+    public String modifyDrillList(Model model, @RequestParam(defaultValue = "0") int page) {
+        var response = drillApiService.getAllSummaries();
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
             model.addAttribute("windowTitle", "Error");
             model.addAttribute("buttonText", "");
             model.addAttribute("listItems", Map.of());
         } else {
-            List<DrillResponseDTO> drills = List.of(response.getResponse());
+            List<DrillSummaryDTO> drills = Arrays.asList(response.getResponse());
 
             model.addAttribute("windowTitle",
                 "Choose Drill to Modify");
             model.addAttribute("buttonText", "Modify");
 
-            // Add categories to list
-            BiFunction<String, Long, Map<String, String>> createListItem =
-                (description, drillId) -> Map.of(
-                    "itemDescription", description,
-                    "htmxEndpoint", "/htmx/drill/modify/" + drillId
-                );
-            List<Map<String, String>> listItems = new ArrayList<>(drills.size());
-            for (var drill : drills) {
-                listItems.add(
-                    createListItem.apply(drill.getName(), drill.getId())
-                );
-            }
-            model.addAttribute("listItems", listItems);
+            ViewWindowList.addPage(model, drills, page, "/htmx/drill/modify",
+                DrillSummaryDTO::getName, drill -> "/htmx/drill/modify/" + drill.getId());
         }
 
-        return "layouts/htmx/view_window_list :: viewWindowList";
+        return ViewWindowList.fragment(page);
     }
 
     @GetMapping("/modify/{id}")
     public String modifyDrillForm(Model model, @PathVariable Long id) {
-        var drillGetResponse = drillApiService.get(id);
+        // The drill and the lists are independent, retrieve them all at once
+        var fanOut = backendFanOut.start();
+        var drillGetFuture = fanOut.submit(() -> drillApiService.get(id));
+        var drillListFuture = fanOut.submit(drillApiService::getAllSummaries);
+        var categoriesListFuture = fanOut.submit(categoryApiService::getAll);
+        var subCategoriesListFuture = fanOut.submit(subCategoryApiService::getAll);
+
+        var drillGetResponse = fanOut.await(drillGetFuture);
         if (drillGetResponse.hasError()) {
+            // The lists are not needed anymore
+            fanOut.cancel();
             model.addAttribute("errorMessage", drillGetResponse.getError().toString());
-            return modifyDrillList(model);
+            return modifyDrillList(model, 0);
         }
 
         model.addAttribute("windowTitle", "Update Drill");
@@ -497,35 +512,30 @@ public class HtmxDrillController {
             model.addAttribute("checkedRelatedDrills", Set.of());
         }
 
-        var drillListResponse = drillApiService.getAll();
+        var drillListResponse = fanOut.await(drillListFuture);
         if (drillListResponse.hasError()) {
             model.addAttribute("errorMessage", drillListResponse.getError().toString());
             model.addAttribute("drillsList", List.of());
         } else if (0 < drillListResponse.getResponse().length) {
             // Have to remove the current drill, can't be related to itself
-            var drillList = new ArrayList<>(drillListResponse.getResponse().length - 1);
-            for (var oneDrill : drillListResponse.getResponse()) {
-                if (!oneDrill.getId().equals(id)) {
-                    drillList.add(oneDrill);
-                }
-            }
-            model.addAttribute("drillsList", drillList);
+            model.addAttribute("drillsList",
+                StreamedList.without(drillListResponse.getResponse(), oneDrill -> oneDrill.getId().equals(id)));
         }
 
-        var categoriesListResponse = categoryApiService.getAll();
+        var categoriesListResponse = fanOut.await(categoriesListFuture);
         if (categoriesListResponse.hasError()) {
             model.addAttribute("errorMessage", categoriesListResponse.getError().toString());
             model.addAttribute("categoriesList", List.of());
         } else if (0 < categoriesListResponse.getResponse().length) {
-            model.addAttribute("categoriesList", List.of(categoriesListResponse.getResponse()));
+            model.addAttribute("categoriesList", StreamedList.of(categoriesListResponse.getResponse()));
         }
 
-        var subCategoriesListResponse = subCategoryApiService.getAll();
+        var subCategoriesListResponse = fanOut.await(subCategoriesListFuture);
         if (subCategoriesListResponse.hasError()) {
             model.addAttribute("errorMessage", subCategoriesListResponse.getError().toString());
             model.addAttribute("subCategoriesList", List.of());
         } else if (0 < subCategoriesListResponse.getResponse().length) {
-            model.addAttribute("subCategoriesList", List.of(subCategoriesListResponse.getResponse()));
+            model.addAttribute("subCategoriesList", StreamedList.of(subCategoriesListResponse.getResponse()));
         }
 
         return "layouts/htmx/drill_form :: drillForm";
@@ -534,10 +544,10 @@ public class HtmxDrillController {
     @PostMapping("/modify/{id}")
     public String modifyDrill(Model model, @PathVariable Long id,
             @ModelAttribute DrillFormDTO drill) {
-        var existingDrillResponse = drillApiService.get(id);
+        var existingDrillResponse = drillApiService.getCurrent(id);
         if (existingDrillResponse.hasError()) {
             model.addAttribute("errorMessage", existingDrillResponse.getError().toString());
-            return modifyDrillList(model);
+            return modifyDrillList(model, 0);
         } else {
             DrillResponseDTO existingDrill = existingDrillResponse.getResponse();
             DrillUpdateDTO updateDrill = new DrillUpdateDTO(existingDrill);
@@ -571,36 +581,26 @@ public class HtmxDrillController {
     }
 
     @GetMapping("/delete")
-    public String deleteDrillList(Model model) {
-        var response = drillApiService.getAll();
+    @CatalogFragment(value = Region.DRILL, cacheOutput = true)
+    public String deleteDrillList(Model model, @RequestParam(defaultValue = "0") int page) {
+        var response = drillApiService.getAllSummaries();
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
             model.addAttribute("windowTitle", "Error");
             model.addAttribute("buttonText", "");
             model.addAttribute("listItems", Map.of());
         } else {
-            List<DrillResponseDTO> drills = List.of(response.getResponse());
+            List<DrillSummaryDTO> drills = Arrays.asList(response.getResponse());
 
             model.addAttribute("windowTitle",
                 "Choose Drill to Delete");
             model.addAttribute("buttonText", "Delete");
 
-            // Add categories to list
-            BiFunction<String, Long, Map<String, String>> createListItem =
-                (description, drillId) -> Map.of(
-                    "itemDescription", description,
-                    "htmxEndpoint", "/htmx/drill/confirm_delete/" + drillId
-                );
-            List<Map<String, String>> listItems = new ArrayList<>(drills.size());
-            for (var drill : drills) {
-                listItems.add(
-                    createListItem.apply(drill.getName(), drill.getId())
-                );
-            }
-            model.addAttribute("listItems", listItems);
+            ViewWindowList.addPage(model, drills, page, "/htmx/drill/delete",
+                DrillSummaryDTO::getName, drill -> "/htmx/drill/confirm_delete/" + drill.getId());
         }
 
-        return "layouts/htmx/view_window_list :: viewWindowList";
+        return ViewWindowList.fragment(page);
     }
 
     @GetMapping("/confirm_delete/{id}")
@@ -608,7 +608,7 @@ public class HtmxDrillController {
         var response = drillApiService.get(id);
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
-            return deleteDrillList(model);
+            return deleteDrillList(model, 0);
         }
 
         DrillResponseDTO drill = response.getResponse();
@@ -626,6 +626,6 @@ public class HtmxDrillController {
     public String deleteOneDrill(Model model, @PathVariable Long id) {
         drillApiService.delete(id);
         model.addAttribute("successMessage", "Drill Successfully Deleted!");
-        return deleteDrillList(model);
+        return deleteDrillList(model, 0);
     }
 }
@@ -26,10 +26,9 @@
 
 package com.damienwesterman.defensedrill.mvc.web.controller;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.function.BiFunction;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -37,7 +36,10 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import com.damienwesterman.defensedrill.mvc.config.CatalogFragment;
+import com.damienwesterman.defensedrill.mvc.service.CatalogCache.Region;
 import com.damienwesterman.defensedrill.mvc.service.DrillApiService;
 import com.damienwesterman.defensedrill.mvc.service.SubCategoryApiService;
 import com.damienwesterman.defensedrill.mvc.web.dto.AbstractCategoryCreateDTO;
@@ -56,7 +58,8 @@ public class HtmxSubCategoryController {
     private final DrillApiService drillApiService;
 
     @GetMapping("/view")
-    public String viewAllSubCategories(Model model) {
+    @CatalogFragment(value = Region.SUB_CATEGORY, cacheOutput = true)
+    public String viewAllSubCategories(Model model, @RequestParam(defaultValue = "0") int page) {
         var response = subCategoryApiService.getAll();
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
@@ -64,36 +67,40 @@ public class HtmxSubCategoryController {
             model.addAttribute("buttonText", "");
             model.addAttribute("listItems", Map.of());
         } else {
-            List<AbstractCategoryDTO> subCategories = List.of(response.getResponse());
+            List<AbstractCategoryDTO> subCategories = Arrays.asList(response.getResponse());
 
             model.addAttribute("windowTitle",
                 "Total Sub-Categories: " + subCategories.size());
             model.addAttribute("buttonText", "Details");
 
-            // Add sub-categories to list
-            BiFunction<String, Long, Map<String, String>> createListItem =
-                (description, subCategoryId) -> Map.of(
-                    "itemDescription", description,
-                    "htmxEndpoint", "/htmx/sub_category/view/" + subCategoryId
-                );
-            List<Map<String, String>> listItems = new ArrayList<>(subCategories.size());
-            for (var subCategory : subCategories) {
-                listItems.add(
-                    createListItem.apply(subCategory.getName(), subCategory.getId())
-                );
-            }
-            model.addAttribute("listItems", listItems);
+            model.addAttribute("searchEndpoint", "/htmx/sub_category/search");
+            ViewWindowList.addPage(model, subCategories, page, "/htmx/sub_category/view",
+                AbstractCategoryDTO::getName, subCategory -> "/htmx/sub_category/view/" + subCategory.getId());
         }
 
-        return "layouts/htmx/view_window_list :: viewWindowList";
+        return ViewWindowList.fragment(page);
+    }
+
+    @GetMapping("/search")
+    @CatalogFragment(Region.SUB_CATEGORY)
+    public String searchSubCategories(Model model, @RequestParam(defaultValue = "") String name) {
+        if (name.isBlank()) {
+            // Search was cleared, go back to the full list
+            viewAllSubCategories(model, 0);
+            return ViewWindowList.itemsFragment();
+        }
+
+        model.addAttribute("buttonText", "Details");
+        return ViewWindowList.addSearchResults(model, subCategoryApiService.search(name), "/htmx/sub_category/view/");
     }
 
     @GetMapping("/view/{id}")
+    @CatalogFragment(Region.SUB_CATEGORY)
     public String viewOneSubCategory(Model model, @PathVariable Long id) {
         var response = subCategoryApiService.get(id);
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
-            return viewAllSubCategories(model);
+            return viewAllSubCategories(model, 0);
         }
 
         var subCategory = response.getResponse();
@@ -111,12 +118,12 @@ public class HtmxSubCategoryController {
         model.addAttribute("postEndpoint", "/htmx/sub_category/create");
         model.addAttribute("buttonText", "Create");
 
-        var response = drillApiService.getAll();
+        var response = drillApiService.getAllSummaries();
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
         } else if (0 < response.getResponse().length) {
             model.addAttribute("displayDrillsList", true);
-            model.addAttribute("drillsList", response.getResponse());
+            model.addAttribute("drillsList", StreamedList.of(response.getResponse()));
         }
 
         return "layouts/htmx/abstract_category_form :: abstractCategoryForm";
@@ -151,7 +158,8 @@ public class HtmxSubCategoryController {
     }
 
     @GetMapping("/modify")
-    public String modifySubCategoryList(Model model) {
+    @CatalogFragment(value = Region.SUB_CATEGORY, cacheOutput = true)
+    public String modifySubCategoryList(Model model, @RequestParam(defaultValue = "0") int page) {
         var response = subCategoryApiService.getAll();
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
@@ -159,28 +167,17 @@ public class HtmxSubCategoryController {
             model.addAttribute("buttonText", "");
             model.addAttribute("listItems", Map.of());
         } else {
-            List<AbstractCategoryDTO> subCategories = List.of(response.getResponse());
+            List<AbstractCategoryDTO> subCategories = Arrays.asList(response.getResponse());
 
             model.addAttribute("windowTitle",
                 "Choose Sub-Category to Modify");
             model.addAttribute("buttonText", "Modify");
 
-            // Add sub-categories to list
-            BiFunction<String, Long, Map<String, String>> createListItem =
-                (description, subCategoryId) -> Map.of(
-                    "itemDescription", description,
-                    "htmxEndpoint", "/htmx/sub_category/modify/" + subCategoryId
-                );
-            List<Map<String, String>> listItems = new ArrayList<>(subCategories.size());
-            for (var subCategory : subCategories) {
-                listItems.add(
-                    createListItem.apply(subCategory.getName(), subCategory.getId())
-                );
-            }
-            model.addAttribute("listItems", listItems);
+            ViewWindowList.addPage(model, subCategories, page, "/htmx/sub_category/modify",
+                AbstractCategoryDTO::getName, subCategory -> "/htmx/sub_category/modify/" + subCategory.getId());
         }
 
-        return "layouts/htmx/view_window_list :: viewWindowList";
+        return ViewWindowList.fragment(page);
     }
 
     @GetMapping("/modify/{id}")
@@ -188,7 +185,7 @@ public class HtmxSubCategoryController {
         var response = subCategoryApiService.get(id);
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
-            return modifySubCategoryList(model);
+            return modifySubCategoryList(model, 0);
         }
 
         AbstractCategoryDTO subCategory = response.getResponse();
@@ -209,7 +206,7 @@ public class HtmxSubCategoryController {
         var response = subCategoryApiService.update(subCategory);
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
-            return modifySubCategoryList(model);
+            return modifySubCategoryList(model, 0);
         }
 
         model.addAttribute("successMessage", "Sub-Category Modified Successfully!");
@@ -224,7 +221,8 @@ public class HtmxSubCategoryController {
     }
 
     @GetMapping("/delete")
-    public String deleteSubCategoryList(Model model) {
+    @CatalogFragment(value = Region.SUB_CATEGORY, cacheOutput = true)
+    public String deleteSubCategoryList(Model model, @RequestParam(defaultValue = "0") int page) {
         var response = subCategoryApiService.getAll();
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
@@ -232,28 +230,17 @@ public class HtmxSubCategoryController {
             model.addAttribute("buttonText", "");
             model.addAttribute("listItems", Map.of());
         } else {
-            List<AbstractCategoryDTO> subCategories = List.of(response.getResponse());
+            List<AbstractCategoryDTO> subCategories = Arrays.asList(response.getResponse());
 
             model.addAttribute("windowTitle",
                 "Choose Sub-Category to Delete");
             model.addAttribute("buttonText", "Delete");
 
-            // Add sub-categories to list
-            BiFunction<String, Long, Map<String, String>> createListItem =
-                (description, subCategoryId) -> Map.of(
-                    "itemDescription", description,
-                    "htmxEndpoint", "/htmx/sub_category/confirm_delete/" + subCategoryId
-                );
-            List<Map<String, String>> listItems = new ArrayList<>(subCategories.size());
-            for (var subCategory : subCategories) {
-                listItems.add(
-                    createListItem.apply(subCategory.getName(), subCategory.getId())
-                );
-            }
-            model.addAttribute("listItems", listItems);
+            ViewWindowList.addPage(model, subCategories, page, "/htmx/sub_category/delete",
+                AbstractCategoryDTO::getName, subCategory -> "/htmx/sub_category/confirm_delete/" + subCategory.getId());
         }
 
-        return "layouts/htmx/view_window_list :: viewWindowList";
+        return ViewWindowList.fragment(page);
     }
 
     @GetMapping("/confirm_delete/{id}")
@@ -261,7 +248,7 @@ public class HtmxSubCategoryController {
         var response = subCategoryApiService.get(id);
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
-            return deleteSubCategoryList(model);
+            return deleteSubCategoryList(model, 0);
         }
 
         AbstractCategoryDTO subCategory = response.getResponse();
@@ -279,6 +266,6 @@ public class HtmxSubCategoryController {
     public String deleteOneSubCategory(Model model, @PathVariable Long id) {
         subCategoryApiService.delete(id);
         model.addAttribute("successMessage", "Sub-Category Successfully Deleted!");
-        return deleteSubCategoryList(model);
+        return deleteSubCategoryList(model, 0);
     }
 }
@@ -26,10 +26,9 @@
 
 package com.damienwesterman.defensedrill.mvc.web.controller;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 import org.javatuples.Pair;
@@ -40,6 +39,7 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
 import com.damienwesterman.defensedrill.mvc.service.UserApiService;
@@ -68,7 +68,7 @@ public class HtmxUserController {
     }
 
     @GetMapping("/view")
-    public String viewAllUsers(Model model) {
+    public String viewAllUsers(Model model, @RequestParam(defaultValue = "0") int page) {
         var response = apiService.getAll();
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
@@ -76,28 +76,17 @@ public class HtmxUserController {
             model.addAttribute("buttonText", "");
             model.addAttribute("listItems", Map.of());
         } else {
-            List<UserInfoDTO> users = List.of(response.getResponse());
+            List<UserInfoDTO> users = Arrays.asList(response.getResponse());
 
             model.addAttribute("windowTitle",
                 "Total Users: " + users.size());
             model.addAttribute("buttonText", "Details");
 
-            // Add users to list
-            BiFunction<String, Long, Map<String, String>> createListItem =
-                (description, userId) -> Map.of(
-                    "itemDescription", description,
-                    "htmxEndpoint", "/htmx/user/view/" + userId
-                );
-            List<Map<String, String>> listItems = new ArrayList<>(users.size());
-            for (var user : users) {
-                listItems.add(
-                    createListItem.apply(user.getUsername(), user.getId())
-                );
-            }
-            model.addAttribute("listItems", listItems);
+            ViewWindowList.addPage(model, users, page, "/htmx/user/view",
+                UserInfoDTO::getUsername, user -> "/htmx/user/view/" + user.getId());
         }
 
-        return "layouts/htmx/view_window_list :: viewWindowList";
+        return ViewWindowList.fragment(page);
     }
 
     @GetMapping("/view/{id}")
@@ -105,7 +94,7 @@ public class HtmxUserController {
         var response = apiService.get(id);
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
-            return viewAllUsers(model);
+            return viewAllUsers(model, 0);
         }
 
         var user = response.getResponse();
@@ -151,7 +140,7 @@ public class HtmxUserController {
     }
 
     @GetMapping("/modify")
-    public String modifyUsersList(Model model) {
+    public String modifyUsersList(Model model, @RequestParam(defaultValue = "0") int page) {
         var response = apiService.getAll();
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
@@ -159,35 +148,24 @@ public class HtmxUserController {
             model.addAttribute("buttonText", "");
             model.addAttribute("listItems", Map.of());
         } else {
-            List<UserInfoDTO> users = List.of(response.getResponse());
+            List<UserInfoDTO> users = Arrays.asList(response.getResponse());
 
             model.addAttribute("windowTitle",
                 "Choose User to Modify");
             model.addAttribute("buttonText", "Modify");
 
-            // Add users to list
-            BiFunction<String, Long, Map<String, String>> createListItem =
-                (description, userId) -> Map.of(
-                    "itemDescription", description,
-                    "htmxEndpoint", "/htmx/user/modify/" + userId
-                );
-            List<Map<String, String>> listItems = new ArrayList<>(users.size());
-            for (var user : users) {
-                listItems.add(
-                    createListItem.apply(user.getUsername(), user.getId())
-                );
-            }
-            model.addAttribute("listItems", listItems);
+            ViewWindowList.addPage(model, users, page, "/htmx/user/modify",
+                UserInfoDTO::getUsername, user -> "/htmx/user/modify/" + user.getId());
         }
 
-        return "layouts/htmx/view_window_list :: viewWindowList";
+        return ViewWindowList.fragment(page);
     }
     @GetMapping("/modify/{id}")
     public String modifyOneUserForm(Model model, @PathVariable Long id) {
         var response = apiService.get(id);
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
-            return modifyUsersList(model);
+            return modifyUsersList(model, 0);
         }
 
         UserInfoDTO user = response.getResponse();
@@ -217,7 +195,7 @@ public class HtmxUserController {
         var response = apiService.update(id, user);
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
-            return modifyUsersList(model);
+            return modifyUsersList(model, 0);
         }
 
         model.addAttribute("successMessage", "User Modified Successfully!");
@@ -232,7 +210,7 @@ public class HtmxUserController {
     }
 
     @GetMapping("/delete")
-    public String deleteUsersList(Model model) {
+    public String deleteUsersList(Model model, @RequestParam(defaultValue = "0") int page) {
         var response = apiService.getAll();
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
@@ -240,28 +218,17 @@ public class HtmxUserController {
             model.addAttribute("buttonText", "");
             model.addAttribute("listItems", Map.of());
         } else {
-            List<UserInfoDTO> users = List.of(response.getResponse());
+            List<UserInfoDTO> users = Arrays.asList(response.getResponse());
 
             model.addAttribute("windowTitle",
                 "Choose User to Delete");
             model.addAttribute("buttonText", "Delete");
 
-            // Add users to list
-            BiFunction<String, Long, Map<String, String>> createListItem =
-                (description, userId) -> Map.of(
-                    "itemDescription", description,
-                    "htmxEndpoint", "/htmx/user/confirm_delete/" + userId
-                );
-            List<Map<String, String>> listItems = new ArrayList<>(users.size());
-            for (var user : users) {
-                listItems.add(
-                    createListItem.apply(user.getUsername(), user.getId())
-                );
-            }
-            model.addAttribute("listItems", listItems);
+            ViewWindowList.addPage(model, users, page, "/htmx/user/delete",
+                UserInfoDTO::getUsername, user -> "/htmx/user/confirm_delete/" + user.getId());
         }
 
-        return "layouts/htmx/view_window_list :: viewWindowList";
+        return ViewWindowList.fragment(page);
     }
 
     @GetMapping("/confirm_delete/{id}")
@@ -269,7 +236,7 @@ public class HtmxUserController {
         var response = apiService.get(id);
         if (response.hasError()) {
             model.addAttribute("errorMessage", response.getError().toString());
-            return deleteUsersList(model);
+            return deleteUsersList(model, 0);
         }
 
         UserInfoDTO user = response.getResponse();
@@ -291,6 +258,6 @@ public class HtmxUserController {
         } else {
             model.addAttribute("successMessage", "User Successfully Deleted!");
         }
-        return deleteUsersList(model);
+        return deleteUsersList(model, 0);
     }
 }
@@ -0,0 +1,112 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.mvc.web.controller;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+import org.springframework.lang.NonNull;
+
+import com.damienwesterman.defensedrill.mvc.config.StreamingThymeleafView;
+import com.damienwesterman.defensedrill.mvc.util.Constants;
+
+/**
+ * Read-only list over a backend array, for the long lists of a fragment (the checkboxes of the
+ * drill form, ...). Nothing is copied, and iterating it (th:each) flushes what was rendered so far
+ * every {@link Constants#STREAM_CHUNK_SIZE} items, see {@link StreamingThymeleafView}.
+ */
+final class StreamedList<T> extends AbstractList<T> implements RandomAccess {
+    private final T[] items;
+    /** Index of the item left out, -1 for none */
+    private final int excludedIndex;
+
+    private StreamedList(T[] items, int excludedIndex) {
+        this.items = items;
+        this.excludedIndex = excludedIndex;
+    }
+
+    /**
+     * List of all the items.
+     */
+    @NonNull
+    static <T> StreamedList<T> of(@NonNull T[] items) {
+        return new StreamedList<>(items, -1);
+    }
+
+    /**
+     * List of the items, without the first one that matches.
+     */
+    @NonNull
+    static <T> StreamedList<T> without(@NonNull T[] items, @NonNull Predicate<T> excluded) {
+        for (int i = 0; i < items.length; i++) {
+            if (excluded.test(items[i])) {
+                return new StreamedList<>(items, i);
+            }
+        }
+        return of(items);
+    }
+
+    @Override
+    public T get(int index) {
+        if (0 > index || size() <= index) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return items[-1 != excludedIndex && excludedIndex <= index ? index + 1 : index];
+    }
+
+    @Override
+    public int size() {
+        return -1 == excludedIndex ? items.length : items.length - 1;
+    }
+
+    @Override
+    @NonNull
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (0 < index && 0 == index % Constants.STREAM_CHUNK_SIZE) {
+                    StreamingThymeleafView.flush();
+                }
+                return get(index++);
+            }
+        };
+    }
+}
@@ -0,0 +1,135 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.damienwesterman.defensedrill.mvc.web.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.lang.NonNull;
+import org.springframework.ui.Model;
+
+import com.damienwesterman.defensedrill.mvc.service.CatalogNameIndex;
+import com.damienwesterman.defensedrill.mvc.util.Constants;
+import com.damienwesterman.defensedrill.mvc.web.dto.BackendResponse;
+
+/**
+ * Pagination for the layouts/htmx/view_window_list fragment.
+ * <br><br>
+ * Page 0 renders the whole window with the first {@link Constants#LIST_PAGE_SIZE} items. Once the
+ * user scrolls to the end of the list, HTMX requests the next page from the same endpoint, which
+ * only renders the items, so each response only ever holds one page worth of items.
+ * <br><br>
+ * Search results replace the items of the window in the same way.
+ */
+final class ViewWindowList {
+    private final static String WINDOW_FRAGMENT = "layouts/htmx/view_window_list :: viewWindowList";
+    private final static String ITEMS_FRAGMENT = "layouts/htmx/view_window_list :: viewWindowListItems";
+
+    private ViewWindowList() { }
+
+    /**
+     * Add one page of items to the model as "listItems", and "nextPageEndpoint" if there are more.
+     *
+     * @param model Model to add to.
+     * @param items All items of the list.
+     * @param page Page to add, starting at 0.
+     * @param listEndpoint Endpoint of the list itself, used to request the next page.
+     * @param itemDescription "itemDescription" of an item.
+     * @param itemEndpoint "htmxEndpoint" of an item.
+     */
+    static <T> void addPage(@NonNull Model model, @NonNull List<T> items, int page,
+            @NonNull String listEndpoint, @NonNull Function<T, String> itemDescription,
+            @NonNull Function<T, String> itemEndpoint) {
+        int fromIndex = (int) Math.min((long) Math.max(page, 0) * Constants.LIST_PAGE_SIZE, items.size());
+        int toIndex = Math.min(fromIndex + Constants.LIST_PAGE_SIZE, items.size());
+
+        List<Map<String, String>> listItems = new ArrayList<>(toIndex - fromIndex);
+        for (T item : items.subList(fromIndex, toIndex)) {
+            listItems.add(Map.of(
+                "itemDescription", itemDescription.apply(item),
+                "htmxEndpoint", itemEndpoint.apply(item)
+            ));
+        }
+        model.addAttribute("listItems", listItems);
+
+        if (toIndex < items.size()) {
+            model.addAttribute("nextPageEndpoint", listEndpoint + "?page=" + (Math.max(page, 0) + 1));
+        }
+    }
+
+    /**
+     * Add the results of a typeahead search to the model as "listItems", with a "listMessage"
+     * when there is nothing to show.
+     *
+     * @param model Model to add to.
+     * @param response Response of the search.
+     * @param itemEndpoint Endpoint of a match, its ID is appended.
+     * @return Fragment to return.
+     */
+    @NonNull
+    static String addSearchResults(@NonNull Model model,
+            @NonNull BackendResponse<List<CatalogNameIndex.Match>> response, @NonNull String itemEndpoint) {
+        List<Map<String, String>> listItems = new ArrayList<>();
+        if (response.hasError()) {
+            model.addAttribute("listMessage", response.getError().toString());
+        } else if (response.getResponse().isEmpty()) {
+            model.addAttribute("listMessage", "No matches.");
+        } else {
+            for (var match : response.getResponse()) {
+                listItems.add(Map.of(
+                    "itemDescription", match.name(),
+                    "htmxEndpoint", itemEndpoint + match.id()
+                ));
+            }
+        }
+        model.addAttribute("listItems", listItems);
+
+        return ITEMS_FRAGMENT;
+    }
+
+    /**
+     * Fragment rendering only the list items, see {@link #fragment(int)}.
+     */
+    @NonNull
+    static String itemsFragment() {
+        return ITEMS_FRAGMENT;
+    }
+
+    /**
+     * Fragment to return for the page.
+     *
+     * @param page Page being rendered, starting at 0.
+     * @return The whole window for the first page, only the list items otherwise.
+     */
+    @NonNull
+    static String fragment(int page) {
+        return 0 < page ? ITEMS_FRAGMENT : WINDOW_FRAGMENT;
+    }
+}
@@ -26,6 +26,10 @@
 
 package com.damienwesterman.defensedrill.mvc.web.dto;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
 import org.springframework.lang.NonNull;
 
 import lombok.AllArgsConstructor;
@@ -56,4 +60,22 @@ public class AbstractCategoryDTO {
 
     @NonNull
     private String description;
+
+    /**
+     * Fields of this AbstractCategory that differ from its current state.
+     *
+     * @param current Current state of the AbstractCategory.
+     * @return Names of the differing fields. Empty if nothing changed.
+     */
+    @NonNull
+    public List<String> changedFieldsFrom(@NonNull AbstractCategoryDTO current) {
+        List<String> changedFields = new ArrayList<>();
+        if (!Objects.equals(name, current.name)) {
+            changedFields.add("name");
+        }
+        if (!Objects.equals(description, current.description)) {
+            changedFields.add("description");
+        }
+        return changedFields;
+    }
 }
@@ -50,11 +50,23 @@ public class BackendResponse<T> {
     @Nullable
     private final ErrorMessageDTO error;
 
+    /**
+     * Whether this is an earlier response served again because the backend could not be reached,
+     * rather than what the backend answered just now.
+     */
+    private final boolean fallback;
+
     public BackendResponse(@NonNull HttpStatusCode status, 
             T response, ErrorMessageDTO error) {
+        this(status, response, error, false);
+    }
+
+    private BackendResponse(@NonNull HttpStatusCode status,
+            T response, ErrorMessageDTO error, boolean fallback) {
         this.status = status;
         this.response = response;
         this.error = error;
+        this.fallback = fallback;
 
         // A response OR error MUST exist, never both
         if ( ( !(null != response && null == error)
@@ -67,4 +79,12 @@ public class BackendResponse<T> {
     public boolean hasError() {
         return null != error;
     }
+
+    /**
+     * Copy of this response, marked as a fallback.
+     */
+    @NonNull
+    public BackendResponse<T> asFallback() {
+        return new BackendResponse<>(status, response, error, true);
+    }
 }
@@ -26,7 +26,10 @@
 
 package com.damienwesterman.defensedrill.mvc.web.dto;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import org.springframework.lang.NonNull;
@@ -89,7 +92,13 @@ public class DrillUpdateDTO {
         this.relatedDrills = drill.getRelatedDrills().stream()
             .map(DrillRelatedDTO::getId)
             .collect(Collectors.toList());
-        this.instructions = drill.getInstructions();
+        // Copy the instructions so that modifying them never touches the (possibly cached) response
+        this.instructions = null == drill.getInstructions() ? null : drill.getInstructions().stream()
+            .map(instructions -> new InstructionsDTO(
+                instructions.getDescription(),
+                new ArrayList<>(instructions.getSteps()),
+                instructions.getVideoId()))
+            .collect(Collectors.toList());
     }
 
     /**
@@ -104,4 +113,42 @@ public class DrillUpdateDTO {
         this.relatedDrills = drill.getRelatedDrillIds();
         // Instructions are not saved in DrillCreateHtmxDTO, leave as it was
     }
+
+    /**
+     * Fields of this update that differ from the current state of the Drill. The order of the
+     * category, sub-category and related Drill IDs does not matter, and a missing list is the same
+     * as an empty one.
+     *
+     * @param current DrillUpdateDTO made from the current Drill.
+     * @return Names of the differing fields, as sent to the backend. Empty if nothing changed.
+     */
+    @NonNull
+    public List<String> changedFieldsFrom(@NonNull DrillUpdateDTO current) {
+        List<String> changedFields = new ArrayList<>();
+        if (!Objects.equals(name, current.name)) {
+            changedFields.add("name");
+        }
+        if (!sameIds(categoryIds, current.categoryIds)) {
+            changedFields.add("categories");
+        }
+        if (!sameIds(subCategoryIds, current.subCategoryIds)) {
+            changedFields.add("sub_categories");
+        }
+        if (!sameIds(relatedDrills, current.relatedDrills)) {
+            changedFields.add("related_drills");
+        }
+        if (!orEmpty(instructions).equals(orEmpty(current.instructions))) {
+            changedFields.add("instructions");
+        }
+        return changedFields;
+    }
+
+    private static boolean sameIds(@Nullable List<Long> ids, @Nullable List<Long> otherIds) {
+        return new HashSet<>(orEmpty(ids)).equals(new HashSet<>(orEmpty(otherIds)));
+    }
+
+    @NonNull
+    private static <T> List<T> orEmpty(@Nullable List<T> list) {
+        return null == list ? List.of() : list;
+    }
 }
@@ -0,0 +1,159 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.mvc.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.ModelAndView;
+
+import com.damienwesterman.defensedrill.mvc.service.CatalogCache;
+import com.damienwesterman.defensedrill.mvc.service.CatalogCache.Region;
+import com.damienwesterman.defensedrill.mvc.web.dto.BackendResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * {@link FragmentETagInterceptor} around a made up {@link CatalogFragment} handler reading through
+ * a real {@link CatalogCache}, with the backend's answer changed behind the cache's back.
+ */
+class FragmentETagInterceptorTest {
+    private final static Duration TTL = Duration.ofMillis(500);
+    private final static String URI = "/htmx/drill/view/1";
+
+    private CatalogCache catalogCache;
+    private FragmentETagInterceptor interceptor;
+    private HandlerMethod handler;
+    private String backendName;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        catalogCache = new CatalogCache(new SimpleMeterRegistry(), true, TTL, 100,
+            false, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        interceptor = new FragmentETagInterceptor(catalogCache, 100);
+        handler = new HandlerMethod(new Controller(), Controller.class.getMethod("view"));
+        backendName = "Jab";
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalogCache.destroy();
+    }
+
+    @Test
+    void matchingETagIsNotModified() throws Exception {
+        // The first load moves the version while the handler runs, so no ETag yet
+        assertThat(request(null).getHeader(HttpHeaders.ETAG)).isNull();
+        MockHttpServletResponse first = request(null);
+        String eTag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(first.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(eTag).isNotNull();
+
+        MockHttpServletResponse second = request(eTag);
+        assertThat(second.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo(eTag);
+        assertThat(second.getContentAsString()).isEmpty();
+    }
+
+    @Test
+    void expiredEntryIsReloadedAndChangesTheETag() throws Exception {
+        String eTag = cachedETag();
+
+        // Changed through another instance, this one only sees it once its entry expires
+        backendName = "Cross";
+        assertThat(request(eTag).getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        Thread.sleep(TTL.multipliedBy(2).toMillis());
+
+        MockHttpServletResponse response = request(eTag);
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).isEqualTo("Cross");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(eTag);
+        assertThat(request(eTag).getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(cachedETag()).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void expiredEntryReloadedUnchangedKeepsTheETag() throws Exception {
+        String eTag = cachedETag();
+        Thread.sleep(TTL.multipliedBy(2).toMillis());
+
+        // The handler has to run to find out, but can send the same ETag again
+        MockHttpServletResponse response = request(eTag);
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).isEqualTo("Jab");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(eTag);
+
+        assertThat(request(eTag).getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+    }
+
+    /**
+     * ETag of the fragment once its entry is cached.
+     */
+    private String cachedETag() throws Exception {
+        request(null);
+        String eTag = request(null).getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+        return eTag;
+    }
+
+    /**
+     * Run the request through the interceptor and, unless it answered, the handler.
+     */
+    private MockHttpServletResponse request(String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", URI);
+        if (null != ifNoneMatch) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        if (interceptor.preHandle(request, response, handler)) {
+            String name = catalogCache.get(Region.DRILL, "1",
+                () -> new BackendResponse<>(HttpStatus.OK, backendName, null)).getResponse();
+            interceptor.postHandle(request, response, handler, new ModelAndView("drill"));
+            response.getWriter().write(name);
+            interceptor.afterCompletion(request, response, handler, null);
+        }
+
+        return response;
+    }
+
+    static class Controller {
+        @CatalogFragment(Region.DRILL)
+        public String view() {
+            return "drill";
+        }
+    }
+}
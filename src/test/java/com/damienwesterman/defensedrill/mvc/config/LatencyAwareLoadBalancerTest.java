@@ -0,0 +1,175 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.mvc.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+
+/**
+ * {@link LatencyAwareLoadBalancer#choose(Request)} against {@link InstanceLatencyStats} filled in
+ * with made up calls.
+ */
+class LatencyAwareLoadBalancerTest {
+    private final static String SERVICE_ID = "rest-api";
+    private final static int CHOICES = 50;
+
+    private final ServiceInstance fast = instance(1);
+    private final ServiceInstance slow = instance(2);
+    private InstanceLatencyStats stats;
+
+    @BeforeEach
+    void setUp() {
+        stats = new InstanceLatencyStats(0.5, Duration.ofSeconds(1), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void lowerLatencyWins() {
+        record(fast, Duration.ofMillis(10));
+        record(slow, Duration.ofMillis(200));
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(fast, slow);
+
+        for (int i = 0; i < CHOICES; i++) {
+            assertThat(choose(loadBalancer, null).getServer()).isEqualTo(fast);
+        }
+    }
+
+    @Test
+    void callsInFlightAddToTheCost() {
+        record(fast, Duration.ofMillis(10));
+        record(slow, Duration.ofMillis(20));
+        // 10ms * (3 + 1) in flight costs more than 20ms * (0 + 1)
+        for (int i = 0; i < 3; i++) {
+            stats.of(fast).start();
+        }
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(fast, slow);
+
+        for (int i = 0; i < CHOICES; i++) {
+            assertThat(choose(loadBalancer, null).getServer()).isEqualTo(slow);
+        }
+    }
+
+    @Test
+    void instanceNeedingProbeWins() {
+        record(fast, Duration.ofMillis(10));
+        // Never called, its average means nothing yet
+        ServiceInstance unknown = instance(3);
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(fast, unknown);
+
+        assertThat(choose(loadBalancer, null).getServer()).isEqualTo(unknown);
+    }
+
+    @Test
+    void hedgedAttemptsGoToDifferentInstances() {
+        record(fast, Duration.ofMillis(10));
+        record(slow, Duration.ofMillis(200));
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(fast, slow);
+
+        Response<ServiceInstance> first = choose(loadBalancer, "1");
+        Response<ServiceInstance> hedge = choose(loadBalancer, "1");
+        Response<ServiceInstance> third = choose(loadBalancer, "1");
+
+        assertThat(first.getServer()).isEqualTo(fast);
+        assertThat(hedge.getServer()).isEqualTo(slow);
+        // Both instances already have an attempt of the call
+        assertThat(third.hasServer()).isFalse();
+        // Other calls are not affected
+        assertThat(choose(loadBalancer, "2").getServer()).isEqualTo(fast);
+    }
+
+    @Test
+    void singleInstanceIsNotHedgedToItself() {
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(fast);
+
+        assertThat(choose(loadBalancer, "1").getServer()).isEqualTo(fast);
+        assertThat(choose(loadBalancer, "1").hasServer()).isFalse();
+    }
+
+    @Test
+    void everyInstanceGetsTrafficWhenEven() {
+        ServiceInstance other = instance(3);
+        record(fast, Duration.ofMillis(10));
+        record(slow, Duration.ofMillis(10));
+        record(other, Duration.ofMillis(10));
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(fast, slow, other);
+
+        Set<ServiceInstance> chosen = new HashSet<>();
+        for (int i = 0; i < CHOICES; i++) {
+            chosen.add(choose(loadBalancer, null).getServer());
+        }
+        assertThat(chosen).containsExactlyInAnyOrder(fast, slow, other);
+    }
+
+    @Test
+    void noInstances() {
+        assertThat(choose(loadBalancer(), null).hasServer()).isFalse();
+    }
+
+    private void record(ServiceInstance instance, Duration duration) {
+        InstanceLatencyStats.Stats instanceStats = stats.of(instance);
+        instanceStats.start();
+        instanceStats.complete(duration.toNanos(), false);
+    }
+
+    private LatencyAwareLoadBalancer loadBalancer(ServiceInstance... instances) {
+        return new LatencyAwareLoadBalancer(
+            ServiceInstanceListSuppliers.toProvider(SERVICE_ID, instances), stats);
+    }
+
+    private static Response<ServiceInstance> choose(LatencyAwareLoadBalancer loadBalancer, String hedgeId) {
+        HttpHeaders headers = new HttpHeaders();
+        if (null != hedgeId) {
+            headers.set(LatencyAwareLoadBalancer.HEDGE_ID_HEADER, hedgeId);
+        }
+        RequestData requestData = new RequestData(HttpMethod.GET, URI.create("http://" + SERVICE_ID + "/drill"),
+            headers, new LinkedMultiValueMap<>(), new HashMap<>());
+        return loadBalancer.choose(new DefaultRequest<>(new RequestDataContext(requestData))).block();
+    }
+
+    private static ServiceInstance instance(int number) {
+        return new DefaultServiceInstance(SERVICE_ID + "-" + number, SERVICE_ID,
+            "backend-" + number, 8080, false);
+    }
+}
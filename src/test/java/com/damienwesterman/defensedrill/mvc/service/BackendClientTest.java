@@ -0,0 +1,145 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.mvc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.time.Duration;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import com.damienwesterman.defensedrill.mvc.web.dto.AbstractCategoryDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Conditional GETs of {@link BackendClient}, with single-flight, hedging, the circuit breaker and
+ * the bulkhead disabled so that every GET reaches the mock server.
+ */
+class BackendClientTest {
+    private final static String URL = "http://rest-api/category/id/{id}";
+    private final static String CATEGORY_URL = "http://rest-api/category/id/1";
+    private final static String CATEGORY_JSON = "{\"id\":1,\"name\":\"Category\",\"description\":\"Description\"}";
+
+    private MockRestServiceServer server;
+    private BackendClient backendClient;
+    private BackendResponseExtractor<AbstractCategoryDTO> extractor;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        backendClient = new BackendClient(restTemplate, new ObjectMapper(),
+            CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), meterRegistry,
+            new BackendHedging(meterRegistry, null, false, false, 0.95, Duration.ofMillis(50), 0.05, 1),
+            new BackendMetrics(meterRegistry),
+            true, 100,
+            false, Duration.ofSeconds(5),
+            false, 100, Duration.ofMinutes(10),
+            false, Set.of());
+        extractor = backendClient.<AbstractCategoryDTO>extractor()
+            .onBody(HttpStatus.OK, backendClient.readerFor(AbstractCategoryDTO.class))
+            .build();
+    }
+
+    @Test
+    void notModifiedReusesCachedBody() {
+        server.expect(requestTo(CATEGORY_URL))
+            .andExpect(method(HttpMethod.GET))
+            .andRespond(withSuccess(CATEGORY_JSON, MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.ETAG, "\"v1\""));
+        server.expect(requestTo(CATEGORY_URL))
+            .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+            .andRespond(withStatus(HttpStatus.NOT_MODIFIED)
+                .header(HttpHeaders.ETAG, "\"v1\""));
+
+        var first = backendClient.get("category.get", URL, extractor, 1L);
+        var second = backendClient.get("category.get", URL, extractor, 1L);
+
+        server.verify();
+        assertThat(first.getStatus()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getStatus()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getResponse()).isSameAs(first.getResponse());
+        assertThat(second.getResponse().getName()).isEqualTo("Category");
+    }
+
+    @Test
+    void modifiedReplacesCachedBody() {
+        server.expect(requestTo(CATEGORY_URL))
+            .andRespond(withSuccess(CATEGORY_JSON, MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.ETAG, "\"v1\""));
+        server.expect(requestTo(CATEGORY_URL))
+            .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+            .andRespond(withSuccess(CATEGORY_JSON.replace("\"Category\"", "\"Renamed\""),
+                    MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.ETAG, "\"v2\""));
+        server.expect(requestTo(CATEGORY_URL))
+            .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v2\""))
+            .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        backendClient.get("category.get", URL, extractor, 1L);
+        var modified = backendClient.get("category.get", URL, extractor, 1L);
+        var notModified = backendClient.get("category.get", URL, extractor, 1L);
+
+        server.verify();
+        assertThat(modified.getResponse().getName()).isEqualTo("Renamed");
+        assertThat(notModified.getResponse()).isSameAs(modified.getResponse());
+    }
+
+    @Test
+    void noValidatorsNoConditionalGet() {
+        server.expect(ExpectedCount.twice(), requestTo(CATEGORY_URL))
+            .andExpect(request -> assertThat(request.getHeaders().getIfNoneMatch()).isEmpty())
+            .andRespond(withSuccess(CATEGORY_JSON, MediaType.APPLICATION_JSON));
+
+        var first = backendClient.get("category.get", URL, extractor, 1L);
+        var second = backendClient.get("category.get", URL, extractor, 1L);
+
+        server.verify();
+        assertThat(second.getResponse()).isNotSameAs(first.getResponse())
+            .isEqualTo(first.getResponse());
+    }
+}